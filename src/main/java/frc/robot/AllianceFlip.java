@@ -0,0 +1,94 @@
+package frc.robot;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.Constants.FieldConstants;
+
+/**
+ * Mirrors positions on the field for the red alliance. The pose is always measured from the blue
+ * alliance wall, as in WPILib, and targets are written down for blue, so on red they are turned half a
+ * turn about the center of the field (the field is the same both ways round). The driver's inputs are
+ * turned the same way, so pushing the stick forward always drives away from the driver's own wall.
+ * Until the driver station reports an alliance, the robot is assumed to be on blue.
+ *
+ * <p>The alliance is read once a loop by {@link #update()}, so checking it from commands every loop
+ * costs nothing.
+ */
+public final class AllianceFlip {
+    private static boolean red = false;
+
+    private AllianceFlip() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    /**
+     * Reads the alliance from the driver station. Called once a loop by {@link Robot}, before the
+     * scheduler runs.
+     */
+    public static void update() {
+        // Unlike getAlliance(), this doesn't create an Optional every loop.
+        switch (DriverStation.getRawAllianceStation()) {
+            case Red1:
+            case Red2:
+            case Red3:
+                red = true;
+                break;
+            default:
+                red = false;
+                break;
+        }
+    }
+
+    /**
+     * @return Whether or not the robot is on the red alliance, as of the last {@link #update()}.
+     */
+    public static boolean isRed() {
+        return red;
+    }
+
+    /**
+     * @return A pose for the blue alliance, moved to the robot's alliance.
+     */
+    public static Pose2d apply(Pose2d bluePose) {
+        return isRed() ? mirror(bluePose) : bluePose;
+    }
+
+    /**
+     * @return A point for the blue alliance, moved to the robot's alliance.
+     */
+    public static Translation2d apply(Translation2d bluePoint) {
+        return isRed() ? mirror(bluePoint) : bluePoint;
+    }
+
+    /**
+     * @return The same pose for the other alliance, whichever alliance the robot is on.
+     */
+    public static Pose2d mirror(Pose2d pose) {
+        return new Pose2d(mirror(pose.getTranslation()), pose.getRotation().plus(Rotation2d.kPi));
+    }
+
+    /**
+     * @return The same point for the other alliance, whichever alliance the robot is on.
+     */
+    public static Translation2d mirror(Translation2d point) {
+        return new Translation2d(FieldConstants.fieldLengthMeters - point.getX(),
+                FieldConstants.fieldWidthMeters - point.getY());
+    }
+
+    /**
+     * @return A heading on the field for the blue alliance, in radians, turned for the robot's alliance.
+     */
+    public static double applyToHeading(double blueHeadingRadians) {
+        return isRed() ? blueHeadingRadians + Math.PI : blueHeadingRadians;
+    }
+
+    /**
+     * @return The sign to multiply the driver's translation inputs by to drive relative to the field,
+     * so that forward on the stick is away from the driver's own alliance wall.
+     */
+    public static double inputSign() {
+        return isRed() ? -1 : 1;
+    }
+}
@@ -4,13 +4,59 @@
 
 package frc.robot;
 
+import java.util.Set;
+
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
+import frc.robot.Constants.AutoConstants;
+import frc.robot.Constants.PathPlanningConstants;
+import frc.robot.subsystems.drivetrain.DrivetrainSubsystem;
+import frc.robot.subsystems.drivetrain.commands.DriveToPose;
+import frc.robot.subsystems.drivetrain.planning.PathPlanner;
+import frc.robot.subsystems.drivetrain.planning.PlannedPath;
+import frc.robot.subsystems.superstructure.Superstructure;
+import frc.robot.subsystems.superstructure.commands.RequestGoal;
 
 public final class Autos {
-    // /** Example static factory for an autonomous command. */
-    // public static Command exampleAuto(ExampleSubsystem subsystem) {
-    // }
+    /**
+     * Starts from the starting pose, drives to the shooting pose and shoots the preloaded game piece.
+     * The robot must be placed at {@link AutoConstants#blueStartingPose} (mirrored on red, see
+     * {@link AllianceFlip}), since the odometry is reset to it. The drive is given a time limit, so the
+     * robot always shoots even if it never quite reaches the shooting pose.
+     * 
+     * @param planner The path planner, or null to shoot from the starting pose. The paths for both
+     * alliances are planned straight away on the calling thread, so this must not be called from the
+     * main loop.
+     */
+    public static Command shootPreload(DrivetrainSubsystem drivetrain, PathPlanner planner,
+            Superstructure superstructure) {
+        Pose2d start = AutoConstants.blueStartingPose;
+        Pose2d shootingPose = PathPlanningConstants.blueShootingPose;
+        Command drive = Commands.none();
+        // Planning now also caches the paths, so DriveToPose gets them straight away in auto. The
+        // alliance may not be known yet, so plan for both.
+        PlannedPath bluePath = plan(planner, start, shootingPose);
+        PlannedPath redPath = plan(planner, AllianceFlip.mirror(start), AllianceFlip.mirror(shootingPose));
+        if (bluePath != null && redPath != null) {
+            double length = Math.max(bluePath.getRemainingLength(0), redPath.getRemainingLength(0));
+            // The time limit depends on the translation gain, which can be tuned after this is built, so
+            // work it out when auto starts.
+            drive = Commands.defer(() -> new DriveToPose(drivetrain, planner, shootingPose, () -> 0, () -> 0, () -> 0)
+                    .withTimeout(DriveToPose.timeoutSeconds(length)), Set.of(drivetrain));
+        }
+        return Commands.sequence(
+                Commands.runOnce(() -> drivetrain.resetPose(AllianceFlip.apply(start)), drivetrain),
+                drive,
+                new RequestGoal(superstructure, Superstructure.Goal.SHOOT).withTimeout(AutoConstants.shootSeconds));
+    }
+
+    /**
+     * @return The path between two poses, or null if there is no planner or no path.
+     */
+    private static PlannedPath plan(PathPlanner planner, Pose2d start, Pose2d goal) {
+        return planner != null ? planner.plan(start.getX(), start.getY(), goal.getX(), goal.getY()) : null;
+    }
 
     private Autos() {
         throw new UnsupportedOperationException("This is a utility class!");
@@ -5,6 +5,7 @@ import com.revrobotics.spark.FeedbackSensor;
 import com.revrobotics.spark.config.AbsoluteEncoderConfig;
 import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
 
+import frc.robot.Constants.CharacterizationConstants;
 import frc.robot.Constants.SwerveModuleConstants;
 
 public final class Configs {
@@ -14,30 +15,30 @@ public final class Configs {
 
         // Excuted once on class intialization.
         static {
-            // Use module constants to calculate conversion factors and feed forward gain.
+            // Use module constants to calculate conversion factors.
             double drivingFactor = SwerveModuleConstants.wheelDiameterMeters * Math.PI
                     / SwerveModuleConstants.drivingMotorReduction;
             // Convert from rotations to radians.
             double turningFactor = 2 * Math.PI;
-            // 12V battery.
-            double nominalVoltage = 12.0;
-            double drivingVelocityFeedForward = nominalVoltage / SwerveModuleConstants.driveWheelFreeSpeedRps;
 
             drivingConfig
                     .idleMode(IdleMode.kBrake)
-                    .smartCurrentLimit(50);
+                    .smartCurrentLimit((int) Tunables.drivingCurrentLimit.get());
             drivingConfig.encoder
                     .positionConversionFactor(drivingFactor) // meters
                     .velocityConversionFactor(drivingFactor / 60.0); // meters per second
             drivingConfig.closedLoop
                     .feedbackSensor(FeedbackSensor.kPrimaryEncoder)
                     // These are example gains you may need to them for your own robot!
-                    .pid(0.04, 0, 0)
-                    .outputRange(-1, 1).feedForward.kV(drivingVelocityFeedForward);
+                    .pid(Tunables.drivingKp.get(), 0, 0)
+                    .outputRange(-1, 1).feedForward
+                    .kS(Tunables.drivingKs.get())
+                    .kV(Tunables.drivingKv.get())
+                    .kA(Tunables.drivingKa.get());
 
             turningConfig
                     .idleMode(IdleMode.kBrake)
-                    .smartCurrentLimit(20);
+                    .smartCurrentLimit((int) Tunables.turningCurrentLimit.get());
 
             turningConfig.absoluteEncoder
                     // Invert the turning encoder, since the output shaft rotates in the opposite
@@ -47,11 +48,10 @@ public final class Configs {
                     .velocityConversionFactor(turningFactor / 60.0) // radians per second
                     // This applies to REV Through Bore Encoder V2 (use REV_ThroughBoreEncoder for V1):
                     .apply(AbsoluteEncoderConfig.Presets.REV_ThroughBoreEncoderV2);
-
             turningConfig.closedLoop
                     .feedbackSensor(FeedbackSensor.kAbsoluteEncoder)
                     // These are example gains you may need to them for your own robot!
-                    .pid(1, 0, 0)
+                    .pid(Tunables.turningKp.get(), 0, Tunables.turningKd.get())
                     .outputRange(-1, 1)
                     // Enable PID wrap around for the turning motor. This will allow the PID
                     // controller to go through 0 to get to the setpoint i.e. going from 350 degrees
@@ -60,5 +60,57 @@ public final class Configs {
                     .positionWrappingEnabled(true)
                     .positionWrappingInputRange(0, turningFactor);
         }
+
+        /**
+         * @param periodMs How often the driving encoder and turning encoder velocity are reported, in
+         * milliseconds.
+         * @return A config with only the encoder status periods set. The characterization routine
+         * speeds them up while it runs (see {@link CharacterizationConstants#signalPeriodMs}), so the
+         * rest of the time they don't add to the CAN bus load.
+         */
+        public static SparkMaxConfig drivingSignalsConfig(int periodMs) {
+            SparkMaxConfig config = new SparkMaxConfig();
+            config.signals
+                    .primaryEncoderPositionPeriodMs(periodMs)
+                    .primaryEncoderVelocityPeriodMs(periodMs);
+            return config;
+        }
+
+        /**
+         * @param periodMs How often the turning encoder velocity is reported, in milliseconds.
+         * @return A config with only the encoder status period set (see
+         * {@link #drivingSignalsConfig(int)}).
+         */
+        public static SparkMaxConfig turningSignalsConfig(int periodMs) {
+            SparkMaxConfig config = new SparkMaxConfig();
+            config.signals.absoluteEncoderVelocityPeriodMs(periodMs);
+            return config;
+        }
+
+        /**
+         * @return A config with only the tunable driving gains and limits set, for updating a driving
+         * motor while the robot is running without touching the rest of its configuration.
+         */
+        public static SparkMaxConfig drivingTuningConfig() {
+            SparkMaxConfig config = new SparkMaxConfig();
+            config.smartCurrentLimit((int) Tunables.drivingCurrentLimit.get());
+            config.closedLoop
+                    .pid(Tunables.drivingKp.get(), 0, 0).feedForward
+                    .kS(Tunables.drivingKs.get())
+                    .kV(Tunables.drivingKv.get())
+                    .kA(Tunables.drivingKa.get());
+            return config;
+        }
+
+        /**
+         * @return A config with only the tunable turning gains and limits set, for updating a turning
+         * motor while the robot is running without touching the rest of its configuration.
+         */
+        public static SparkMaxConfig turningTuningConfig() {
+            SparkMaxConfig config = new SparkMaxConfig();
+            config.smartCurrentLimit((int) Tunables.turningCurrentLimit.get());
+            config.closedLoop.pid(Tunables.turningKp.get(), 0, Tunables.turningKd.get());
+            return config;
+        }
     }
 }
\ No newline at end of file
@@ -4,6 +4,8 @@
 
 package frc.robot;
 
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
@@ -26,7 +28,10 @@ public final class Constants {
 
     public static final class OperatorConstants {
         public static final int primaryControllerPort = 0;
+        /** Default deadband, used unless a driver profile sets its own. */
         public static final double driveDeadband = 0.05;
+        /** Directory of driver profiles in the deploy directory (see DriverProfile.java). */
+        public static final String driverProfileDirectory = "driver_profiles";
     }
 
     public static final class DriveConstants {
@@ -36,18 +41,21 @@ public final class Constants {
         public static final double maxSpeed = 4.8;
         /** Max angular speed in radians per second. */
         public static final double maxAngularSpeed = 2 * Math.PI;
-        /** Dampens the inputs from controller. */
+        /** Dampens the inputs from controller for the default driver profile. Driver profiles set
+        their own scale, and can use the full max speed with turbo. */
         public static final double driveInputDampeningFactor = 0.5;
         // TODO: Measure chassis.
         /** Horizontal center distance in meters (left to right). */
         public static final double horizontalChassisWidth = Units.inchesToMeters(26.5);
         /** Vertical wheel center distance in meters (front to back). */
         public static final double verticalChassisWidth = Units.inchesToMeters(26.5);
-        public static final SwerveDriveKinematics driveKinematics = new SwerveDriveKinematics(
+        /** Module locations in the order [frontLeft, frontRight, backLeft, backRight]. */
+        public static final Translation2d[] moduleLocations = {
                 new Translation2d(verticalChassisWidth / 2, horizontalChassisWidth / 2),
                 new Translation2d(verticalChassisWidth / 2, -horizontalChassisWidth / 2),
                 new Translation2d(-verticalChassisWidth / 2, horizontalChassisWidth / 2),
-                new Translation2d(-verticalChassisWidth / 2, -horizontalChassisWidth / 2));
+                new Translation2d(-verticalChassisWidth / 2, -horizontalChassisWidth / 2) };
+        public static final SwerveDriveKinematics driveKinematics = new SwerveDriveKinematics(moduleLocations);
 
         /* Angular offsets of the modules relative to the chassis in radians */
         // TODO: Zero encoders
@@ -69,6 +77,12 @@ public final class Constants {
         public static final int backLeftTurningId = 40;
         /* Other */
         public static final boolean isGyroReversed = false;
+        /** After the rotation stick is released, the heading is held once the robot turns slower than
+        this, in radians per second. Until then the robot is left to stop turning by itself. */
+        public static final double headingHoldSettleSpeed = Math.toRadians(10);
+        /** Heading errors smaller than this are not corrected, so the modules do not jitter while the
+        robot is still. In radians. */
+        public static final double headingDeadband = Math.toRadians(1);
     }
 
     public static final class SwerveModuleConstants {
@@ -83,6 +97,49 @@ public final class Constants {
         public static final double drivingMotorReduction = (45.0 * 22) / (drivingPinionTeeth * 15);
         public static final double driveWheelFreeSpeedRps = (drivingMotorFreeSpeedRps * wheelCircumferenceMeters)
                 / drivingMotorReduction;
+        /* Limits and example gains. You may need to tune them for your own robot! */
+        public static final int drivingCurrentLimit = 50;
+        public static final int turningCurrentLimit = 20;
+        public static final double drivingKp = 0.04;
+        public static final double turningKp = 1;
+        public static final double turningKd = 0;
+        /* Driving feed forward gains. Replace these with the values from the characterization fitter
+        (see CharacterizationFitter.java). Until then, kV is estimated from the free speed. */
+        /** Static friction gain in volts. */
+        public static final double drivingKs = 0;
+        /** Velocity gain in volts per meter per second. */
+        public static final double drivingKv = 12.0 / driveWheelFreeSpeedRps;
+        /** Acceleration gain in volts per meter per second squared. */
+        public static final double drivingKa = 0;
+        /* How quickly the simulated modules follow their setpoints. These are first order time
+        constants in seconds, rough guesses for a MAXSwerve module rather than measured values. */
+        public static final double simulatedDrivingTimeConstant = 0.1;
+        public static final double simulatedTurningTimeConstant = 0.04;
+    }
+
+    public static final class CharacterizationConstants {
+        /** How often the characterization routine samples the drivetrain, in seconds. */
+        public static final double samplePeriodSeconds = 0.01;
+        /** How often the SPARK MAXes report the encoders while the routine runs, in milliseconds, so
+        every sample is fresh. Only for the routine, since it adds to the CAN bus load. */
+        public static final int signalPeriodMs = 10;
+        /** How often they report the encoders the rest of the time, in milliseconds. The main loop
+        can't use them any faster than this. */
+        public static final int normalSignalPeriodMs = 20;
+        /** Number of samples the log can hold. Enough for every test at the sample period above. */
+        public static final int logCapacity = 8192;
+        /** Voltage ramp rate for quasistatic tests in volts per second. */
+        public static final double quasistaticRampRate = 1.0;
+        /** Voltage step for dynamic tests in volts. */
+        public static final double dynamicStepVoltage = 7.0;
+        /** Maximum length of a quasistatic test in seconds. */
+        public static final double quasistaticTimeoutSeconds = 7.0;
+        /** Maximum length of a dynamic test in seconds. */
+        public static final double dynamicTimeoutSeconds = 2.0;
+        /** Rest time between tests in seconds, so the mechanism comes to a stop. */
+        public static final double restSeconds = 1.5;
+        /** A driving test ends early once the wheels have travelled this far, in meters. */
+        public static final double maxDrivingDistanceMeters = 4.0;
     }
 
     public static final class ClimbConstants {
@@ -90,11 +147,33 @@ public final class Constants {
     }
 
     public static final class ShooterConstants {
-        public static final int shooterMotorId = 0;
+        /** Must not share an ID with the intake, since the superstructure commands both every loop. */
+        public static final int shooterMotorId = 10;
+        // TODO: Tune on the robot.
+        /** Open loop speed of the shooter on a [-1.0, 1.0] scale. */
+        public static final double shootingSpeed = 0.8;
+        /** The shooter is ready to shoot once it reaches this speed in RPM. */
+        public static final double readyRpm = 0.9 * shootingSpeed * NeoMotorConstants.freeSpeedRpm;
+        /** First order time constant of the simulated flywheel spinning up, in seconds. A rough guess. */
+        public static final double simulatedSpinUpTimeConstant = 0.3;
     }
 
     public static final class IntakeConstants {
-        public static final int intakeMotorId = 0;
+        public static final int intakeMotorId = 11;
+        // TODO: Tune on the robot.
+        /** Open loop speed of the intake while picking up game pieces. */
+        public static final double intakingSpeed = 0.7;
+        /** Open loop speed of the intake while pulling a game piece into position to shoot. */
+        public static final double stagingSpeed = 0.3;
+        /** Open loop speed of the intake while feeding a game piece into the shooter. */
+        public static final double feedingSpeed = 1.0;
+    }
+
+    public static final class SuperstructureConstants {
+        /** How long the intake keeps running after intaking stops to seat the game piece. */
+        public static final double stagingSeconds = 0.25;
+        /** How long the intake feeds the shooter before the shot is considered done. */
+        public static final double shootingSeconds = 0.5;
     }
 
     public static final class AutoConstants {
@@ -103,6 +182,12 @@ public final class Constants {
         public static final double maxAngularSpeedRadiansPerSecond = Math.PI;
         public static final double maxAngularSpeedRadiansPerSecondSquared = Math.PI;
 
+        // TODO: Replace with the real starting position.
+        /** Where the robot is placed for the autonomous routine (see Autos.java). */
+        public static final Pose2d blueStartingPose = new Pose2d(3.3, 6.0, Rotation2d.kZero);
+        /** How long the autonomous routine tries to shoot for, in seconds. */
+        public static final double shootSeconds = 2.0;
+
         public static final double kPXController = 1;
         public static final double kPYController = 1;
         public static final double kPThetaController = 1;
@@ -112,6 +197,46 @@ public final class Constants {
                 maxAngularSpeedRadiansPerSecond, maxAngularSpeedRadiansPerSecondSquared);
     }
 
+    public static final class FieldConstants {
+        /* Size of the field in meters, the same as in field_obstacles.txt. Positions on the field are
+        given for the blue alliance and mirrored for red (see AllianceFlip.java). */
+        public static final double fieldLengthMeters = 16.54;
+        public static final double fieldWidthMeters = 8.07;
+        // TODO: Measure on the field.
+        /** Center of the blue hub in meters, which the driver can snap to face. */
+        public static final Translation2d blueHubCenter = new Translation2d(4.63, 4.03);
+    }
+
+    public static final class PathPlanningConstants {
+        /** Name of the obstacle map in the deploy directory (see FieldMap.java). */
+        public static final String fieldMapFile = "field_obstacles.txt";
+        /** Number of recent plans to keep. */
+        public static final int cacheCapacity = 32;
+        /** Starts within the same square of this width, in meters, share cached plans. */
+        public static final double cacheStartQuantizationMeters = 0.5;
+        /** A waypoint counts as reached once the robot is this close, in meters. */
+        public static final double waypointToleranceMeters = 0.15;
+        /** The goal counts as reached once the robot is this close, in meters. */
+        public static final double goalToleranceMeters = 0.05;
+        /** The goal heading counts as reached once the robot is this close, in radians. */
+        public static final double goalHeadingToleranceRadians = Math.toRadians(2);
+        /** The robot never approaches the goal slower than this, in meters per second, unless braking
+        to stop at it. Otherwise the proportional gain would slow it down more and more as it gets
+        close, and it would take seconds to cover the last few centimeters. */
+        public static final double minApproachSpeedMetersPerSecond = 0.3;
+        /** Within this distance of the goal, in meters, the robot may stop short if it stalls. */
+        public static final double settleToleranceMeters = 0.15;
+        /** The robot has stalled once it moves less than this, in meters, for stallSeconds. */
+        public static final double stallDistanceMeters = 0.01;
+        public static final double stallSeconds = 0.5;
+        /** Added to the time a path should take when bounding how long auto may drive, in seconds. This
+        covers the modules lagging behind the commanded speed and turning to the goal heading. */
+        public static final double driveTimeoutMarginSeconds = 1.5;
+        // TODO: Replace with real scoring positions.
+        /** Where the robot lines up to shoot at the blue hub. */
+        public static final Pose2d blueShootingPose = new Pose2d(2.8, 4.03, Rotation2d.kZero);
+    }
+
     public static final class NeoMotorConstants {
         public static final double freeSpeedRpm = 5676;
     }
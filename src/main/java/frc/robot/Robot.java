@@ -7,6 +7,8 @@ package frc.robot;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.CharacterizationConstants;
+import frc.robot.tuning.ParameterStore;
 
 /**
  * The methods in this class are called automatically corresponding to each mode, as described in
@@ -26,6 +28,26 @@ public class Robot extends TimedRobot {
         // Instantiate our RobotContainer.  This will perform all our button bindings, and put our
         // autonomous chooser on the dashboard.
         m_robotContainer = new RobotContainer();
+        // Sample the drivetrain faster than the main loop while characterizing. This does nothing
+        // unless the characterization routine is running.
+        addPeriodic(m_robotContainer::characterizationPeriodic, CharacterizationConstants.samplePeriodSeconds);
+    }
+
+    /**
+     * Runs one iteration of the robot loop, exactly as {@link TimedRobot} does every period: the mode
+     * init and periodic functions, {@link #robotPeriodic()} and the dashboard updates. The headless
+     * match simulator calls this instead of starting the TimedRobot clock, so it runs the same code as
+     * the robot.
+     */
+    public void runLoop() {
+        loopFunc();
+    }
+
+    /**
+     * @return The robot container. Used by the headless match simulator to check the robot's state.
+     */
+    public RobotContainer getRobotContainer() {
+        return m_robotContainer;
     }
 
     /**
@@ -41,6 +63,9 @@ public class Robot extends TimedRobot {
         // commands, running already-scheduled commands, removing finished or interrupted commands,
         // and running subsystem periodic() methods.  This must be called from the robot's periodic
         // block in order for anything in the Command-based framework to work.
+        ParameterStore.periodic();
+        AllianceFlip.update();
+        m_robotContainer.updateDriverInputs();
         CommandScheduler.getInstance().run();
     }
 
@@ -56,7 +81,7 @@ public class Robot extends TimedRobot {
     /** This autonomous runs the autonomous command selected by your {@link RobotContainer} class. */
     @Override
     public void autonomousInit() {
-        // m_autonomousCommand = m_robotContainer.getAutonomousCommand();
+        m_autonomousCommand = m_robotContainer.getAutonomousCommand();
 
         // schedule the autonomous command (example)
         if (m_autonomousCommand != null) {
@@ -87,7 +112,9 @@ public class Robot extends TimedRobot {
 
     @Override
     public void testInit() {
-        // Cancels all running commands at the start of test mode.
+        // Cancels all running commands at the start of test mode. The drivetrain characterization
+        // only runs while the driver holds Back (see RobotContainer), so enabling test mode does not
+        // move the robot by itself.
         CommandScheduler.getInstance().cancelAll();
     }
 
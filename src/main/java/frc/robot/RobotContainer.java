@@ -4,17 +4,36 @@
 
 package frc.robot;
 
-import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.AutoConstants;
+import frc.robot.Constants.FieldConstants;
 import frc.robot.Constants.OperatorConstants;
+import frc.robot.Constants.PathPlanningConstants;
+import frc.robot.input.InputShaper;
+import frc.robot.math.MutablePose2d;
 import frc.robot.subsystems.climb.ClimbSubsystem;
 import frc.robot.subsystems.climb.commands.Climb;
 import frc.robot.subsystems.climb.commands.Declimb;
 import frc.robot.subsystems.drivetrain.DrivetrainSubsystem;
+import frc.robot.subsystems.drivetrain.HeadingController;
+import frc.robot.subsystems.drivetrain.characterization.DriveCharacterization;
+import frc.robot.subsystems.drivetrain.commands.DriveToPose;
+import frc.robot.subsystems.drivetrain.commands.TeleopDrive;
+import frc.robot.subsystems.drivetrain.planning.FieldMap;
+import frc.robot.subsystems.drivetrain.planning.PathPlanner;
 import frc.robot.subsystems.intake.IntakeSubsystem;
 import frc.robot.subsystems.shooter.ShooterSubsystem;
-import edu.wpi.first.math.MathUtil;
+import frc.robot.subsystems.superstructure.Superstructure;
+import frc.robot.subsystems.superstructure.commands.RequestGoal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.RunCommand;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 
@@ -33,11 +52,30 @@ public class RobotContainer {
     private final ClimbSubsystem climb = new ClimbSubsystem();
     private final ShooterSubsystem shooter = new ShooterSubsystem();
     private final IntakeSubsystem intake = new IntakeSubsystem();
+    /** Runs the intake and shooter together. Nothing else should command them directly. */
+    private final Superstructure superstructure = new Superstructure(intake, shooter);
+
+    private final DriveCharacterization driveCharacterization = new DriveCharacterization(drivetrain);
+    /** Plans paths for driving to poses on the field. Null if the field map could not be loaded. */
+    private final PathPlanner pathPlanner = createPathPlanner();
 
     // Replace with CommandPS4Controller or CommandJoystick if needed
     private final CommandXboxController primaryController = new CommandXboxController(
             OperatorConstants.primaryControllerPort);
 
+    /** Holds the heading when the rotation stick is released, and snaps to headings. */
+    private final HeadingController headingController = new HeadingController();
+    /** Shapes the driver's inputs. Turbo is the right bumper and precision is the left bumper. */
+    private final InputShaper inputShaper = new InputShaper(
+            Filesystem.getDeployDirectory().toPath().resolve(OperatorConstants.driverProfileDirectory));
+
+    /** Drives with the driver's inputs whenever nothing else is driving. */
+    private final TeleopDrive teleopDrive = new TeleopDrive(drivetrain, headingController, this::getDriveXSpeed,
+            this::getDriveYSpeed, this::getDriveRot);
+
+    /** Built once and reused, since the same routine runs every match. */
+    private final Command autonomousCommand = Autos.shootPreload(drivetrain, pathPlanner, superstructure);
+
     /**
      * The container for the robot. Contains subsystems, OI devices, and commands.
      */
@@ -45,16 +83,55 @@ public class RobotContainer {
         configureBindings();
         // get to work -mateo
         // aye aye captain - malick 
-        drivetrain.setDefaultCommand(new RunCommand(() -> {
-            drivetrain.drive(
-                    -MathUtil.applyDeadband(primaryController.getLeftY(), OperatorConstants.driveDeadband)
-                            * DriveConstants.driveInputDampeningFactor,
-                    -MathUtil.applyDeadband(primaryController.getLeftX(), OperatorConstants.driveDeadband)
-                            * DriveConstants.driveInputDampeningFactor,
-                    -MathUtil.applyDeadband(primaryController.getRightX(), OperatorConstants.driveDeadband)
-                            * DriveConstants.driveInputDampeningFactor,
-                    false /* TODO: test drive field relative. */);
-        }, drivetrain));
+        drivetrain.setDefaultCommand(teleopDrive);
+    }
+
+    /**
+     * Shapes the driver's joystick inputs. Called once a loop by {@link Robot}, before the scheduler
+     * runs, so every command sees the same inputs.
+     */
+    public void updateDriverInputs() {
+        XboxController controller = primaryController.getHID();
+        inputShaper.update(controller.getLeftX(), controller.getLeftY(), controller.getRightX(),
+                controller.getRightBumperButton(), controller.getLeftBumperButton());
+    }
+
+    /**
+     * @return The driver's x-speed (forwards) on a [-1.0, 1.0] scale.
+     */
+    private double getDriveXSpeed() {
+        return inputShaper.getXSpeed();
+    }
+
+    /**
+     * @return The driver's y-speed (leftwards) on a [-1.0, 1.0] scale.
+     */
+    private double getDriveYSpeed() {
+        return inputShaper.getYSpeed();
+    }
+
+    /**
+     * @return The driver's rotation (counterclockwise) on a [-1.0, 1.0] scale.
+     */
+    private double getDriveRot() {
+        return inputShaper.getRot();
+    }
+
+    /**
+     * Loads the field obstacle map from the deploy directory.
+     * 
+     * @return A planner for the field, or null if the map could not be loaded.
+     */
+    private static PathPlanner createPathPlanner() {
+        Path file = Filesystem.getDeployDirectory().toPath().resolve(PathPlanningConstants.fieldMapFile);
+        try {
+            return new PathPlanner(FieldMap.load(file), PathPlanningConstants.cacheCapacity,
+                    PathPlanningConstants.cacheStartQuantizationMeters);
+        } catch (IOException | IllegalArgumentException e) {
+            DriverStation.reportError("Failed to load the field map, drive to pose is disabled: " + e.getMessage(),
+                    false);
+            return null;
+        }
     }
 
     /**
@@ -75,15 +152,82 @@ public class RobotContainer {
         // Example button bindings.
         primaryController.b().onTrue(new Climb(climb));
         primaryController.b().onFalse(new Declimb(climb));
+        primaryController.leftTrigger().whileTrue(new RequestGoal(superstructure, Superstructure.Goal.INTAKE));
+        primaryController.rightTrigger().whileTrue(new RequestGoal(superstructure, Superstructure.Goal.SHOOT));
+        // Snap to the cardinal headings with the D-pad, and to face the hub with A. Like the sticks (see
+        // TeleopDrive), these are relative to the field, with up pointing away from the driver's alliance wall.
+        primaryController.povUp().onTrue(Commands.runOnce(() -> snapTo(AllianceFlip.applyToHeading(0))));
+        primaryController.povLeft().onTrue(Commands.runOnce(() -> snapTo(AllianceFlip.applyToHeading(Math.PI / 2))));
+        primaryController.povDown().onTrue(Commands.runOnce(() -> snapTo(AllianceFlip.applyToHeading(Math.PI))));
+        primaryController.povRight().onTrue(
+                Commands.runOnce(() -> snapTo(AllianceFlip.applyToHeading(-Math.PI / 2))));
+        primaryController.a().onTrue(Commands.runOnce(() -> {
+            // Facing the hub needs to know where the robot is, not just its heading.
+            if (!drivetrain.isPoseSeeded()) {
+                DriverStation.reportWarning("Not facing the hub because the robot's pose on the field is unknown. "
+                        + "Run auto or seed the pose first.", false);
+                return;
+            }
+            MutablePose2d pose = drivetrain.getMutablePose();
+            Translation2d hub = AllianceFlip.apply(FieldConstants.blueHubCenter);
+            snapTo(Math.atan2(hub.getY() - pose.getY(), hub.getX() - pose.getX()));
+        }));
+        // Tell the robot it is at its alliance's starting pose, for when auto has not run since it turned on.
+        primaryController.start().onTrue(Commands.runOnce(
+                () -> drivetrain.resetPose(AllianceFlip.apply(AutoConstants.blueStartingPose))).ignoringDisable(true));
+        // Characterize the drivetrain while Back is held in test mode. Letting go stops the robot and
+        // writes the log, so the robot never drives off without someone holding the button.
+        new Trigger(DriverStation::isTestEnabled).and(primaryController.back())
+                .whileTrue(driveCharacterization.routine());
+        if (pathPlanner != null) {
+            primaryController.x().whileTrue(new DriveToPose(drivetrain, pathPlanner,
+                    PathPlanningConstants.blueShootingPose, this::getDriveXSpeed, this::getDriveYSpeed,
+                    this::getDriveRot));
+        }
+    }
+
+    /**
+     * Snaps the robot to a heading on the field, if the driver is driving. While another command such as
+     * drive to pose is driving, the snap is ignored: TeleopDrive forgets any snap when it takes over
+     * again, since the robot may have turned or moved far from where the snap was asked for.
+     * 
+     * @param headingRadians The heading to snap to, in radians.
+     */
+    private void snapTo(double headingRadians) {
+        if (drivetrain.getCurrentCommand() != teleopDrive) {
+            return;
+        }
+        headingController.snapTo(headingRadians);
+    }
+
+    /**
+     * @return The drivetrain. Used by the headless match simulator to check the robot's pose.
+     */
+    public DrivetrainSubsystem getDrivetrain() {
+        return drivetrain;
     }
 
-    // /**
-    //  * Use this to pass the autonomous command to the main {@link Robot} class.
-    //  *
-    //  * @return the command to run in autonomous
-    //  */
-    // public Command getAutonomousCommand() {
-    //     // An example command will be run in autonomous
-    //     return Autos.exampleAuto(m_exampleSubsystem);
-    // }
+    /**
+     * @return The superstructure. Used by the headless match simulator to check that auto shoots.
+     */
+    public Superstructure getSuperstructure() {
+        return superstructure;
+    }
+
+    /**
+     * Samples the drivetrain for the characterization routine. Registered by {@link Robot} to run
+     * faster than the main loop.
+     */
+    public void characterizationPeriodic() {
+        driveCharacterization.sample();
+    }
+
+    /**
+     * Use this to pass the autonomous command to the main {@link Robot} class.
+     *
+     * @return the command to run in autonomous
+     */
+    public Command getAutonomousCommand() {
+        return autonomousCommand;
+    }
 }
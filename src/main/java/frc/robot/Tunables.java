@@ -0,0 +1,60 @@
+package frc.robot;
+
+import frc.robot.Constants.AutoConstants;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.SwerveModuleConstants;
+import frc.robot.tuning.ParameterStore;
+import frc.robot.tuning.TunableDouble;
+
+/**
+ * Values that can be changed without redeploying code, by editing src/main/deploy/tuning.txt (and
+ * copying it onto the roboRIO, see the README) or the "Tuning" table on the dashboard. The defaults
+ * come from {@link Constants}. Once a value is right, copy it back into Constants.java so it
+ * survives a reboot without the file.
+ */
+public final class Tunables {
+    /* Driver inputs */
+    /** Scale of the default driver profile's inputs. */
+    public static final TunableDouble driveInputDampening = ParameterStore.register(
+            "drive/inputDampening", DriveConstants.driveInputDampeningFactor);
+
+    /* Swerve module angular offsets in radians */
+    public static final TunableDouble frontLeftAngularOffset = ParameterStore.register(
+            "drive/frontLeftAngularOffset", DriveConstants.frontLeftAngularOffset);
+    public static final TunableDouble frontRightAngularOffset = ParameterStore.register(
+            "drive/frontRightAngularOffset", DriveConstants.frontRightAngularOffset);
+    public static final TunableDouble backLeftAngularOffset = ParameterStore.register(
+            "drive/backLeftAngularOffset", DriveConstants.backLeftAngularOffset);
+    public static final TunableDouble backRightAngularOffset = ParameterStore.register(
+            "drive/backRightAngularOffset", DriveConstants.backRightAngularOffset);
+
+    /* Driving SPARK MAX gains and limits */
+    public static final TunableDouble drivingKp = ParameterStore.register(
+            "drive/drivingKp", SwerveModuleConstants.drivingKp);
+    public static final TunableDouble drivingKs = ParameterStore.register(
+            "drive/drivingKs", SwerveModuleConstants.drivingKs);
+    public static final TunableDouble drivingKv = ParameterStore.register(
+            "drive/drivingKv", SwerveModuleConstants.drivingKv);
+    public static final TunableDouble drivingKa = ParameterStore.register(
+            "drive/drivingKa", SwerveModuleConstants.drivingKa);
+    public static final TunableDouble drivingCurrentLimit = ParameterStore.register(
+            "drive/drivingCurrentLimit", SwerveModuleConstants.drivingCurrentLimit);
+
+    /* Turning SPARK MAX gains and limits */
+    public static final TunableDouble turningKp = ParameterStore.register(
+            "drive/turningKp", SwerveModuleConstants.turningKp);
+    public static final TunableDouble turningKd = ParameterStore.register(
+            "drive/turningKd", SwerveModuleConstants.turningKd);
+    public static final TunableDouble turningCurrentLimit = ParameterStore.register(
+            "drive/turningCurrentLimit", SwerveModuleConstants.turningCurrentLimit);
+
+    /* Auto and heading controllers */
+    public static final TunableDouble translationKp = ParameterStore.register(
+            "auto/translationKp", AutoConstants.kPXController);
+    public static final TunableDouble thetaKp = ParameterStore.register(
+            "auto/thetaKp", AutoConstants.kPThetaController);
+
+    private Tunables() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+}
@@ -0,0 +1,180 @@
+package frc.robot.input;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.Constants.OperatorConstants;
+import frc.robot.Tunables;
+
+/**
+ * How one driver likes the joysticks to feel. Profiles are loaded from text files in the
+ * driver_profiles deploy directory, one per driver, with one "key = value" setting per line. Anything
+ * after a '#' is ignored and missing settings keep their defaults.
+ * <pre>
+ * translationCurve = exponential 2   # see ResponseCurve.parse()
+ * rotationCurve = cubic 0.5
+ * deadband = 0.05
+ * normalScale = 0.6                  # fraction of max speed without a mode button held
+ * turboScale = 1.0                   # while turbo is held
+ * precisionScale = 0.25              # while precision is held
+ * </pre>
+ * The deadband must be at least 0 and less than 1, and the scales must be between 0 and 1.
+ */
+public class DriverProfile {
+    private final String name;
+    private ResponseCurve translationCurve = ResponseCurve.linear();
+    private ResponseCurve rotationCurve = ResponseCurve.linear();
+    private double deadband = OperatorConstants.driveDeadband;
+    /** NaN until the profile sets it, meaning the tunable default scale is used. */
+    private double normalScale = Double.NaN;
+    private double turboScale = 1.0;
+    private double precisionScale = 0.25;
+
+    /**
+     * Creates a profile with the default settings: linear curves, scaled down by the dampening
+     * factor in Constants.java (tunable through Tunables.java).
+     * 
+     * @param name The name shown on the dashboard.
+     */
+    public DriverProfile(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Loads a profile from a file. The name of the profile is the file name without the extension.
+     * 
+     * @param file The file to load.
+     * @return The profile.
+     * @throws IOException If the file could not be read.
+     * @throws IllegalArgumentException If the file is malformed.
+     */
+    public static DriverProfile load(Path file) throws IOException {
+        DriverProfile profile = new DriverProfile(nameOf(file));
+
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                if (comment >= 0) {
+                    line = line.substring(0, comment);
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                int equals = line.indexOf('=');
+                if (equals < 0) {
+                    throw new IllegalArgumentException("Expected 'key = value' on line " + lineNumber + " of " + file);
+                }
+                String key = line.substring(0, equals).trim();
+                String value = line.substring(equals + 1).trim();
+                try {
+                    profile.set(key, value);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Malformed value on line " + lineNumber + " of " + file, e);
+                }
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Loads a profile from a file, falling back to the default settings (linear curves) if the file
+     * cannot be read or is malformed, so the driver can still pick their profile and drive.
+     * 
+     * @param file The file to load.
+     * @return The profile, named after the file either way.
+     */
+    public static DriverProfile loadOrDefault(Path file) {
+        try {
+            return load(file);
+        } catch (IOException | IllegalArgumentException e) {
+            DriverStation.reportError("Failed to load driver profile " + file.getFileName()
+                    + ", using linear defaults: " + e.getMessage(), false);
+            return new DriverProfile(nameOf(file));
+        }
+    }
+
+    /**
+     * @return The name of the profile in a file, which is the file name without the extension.
+     */
+    private static String nameOf(Path file) {
+        String fileName = file.getFileName().toString();
+        int extension = fileName.lastIndexOf('.');
+        return extension > 0 ? fileName.substring(0, extension) : fileName;
+    }
+
+    private void set(String key, String value) {
+        switch (key) {
+            case "translationCurve":
+                translationCurve = ResponseCurve.parse(value);
+                break;
+            case "rotationCurve":
+                rotationCurve = ResponseCurve.parse(value);
+                break;
+            case "deadband":
+                // The input is rescaled by 1 / (1 - deadband), so a deadband of 1 would divide by zero.
+                deadband = parseFraction(key, value, false);
+                break;
+            case "normalScale":
+                normalScale = parseFraction(key, value, true);
+                break;
+            case "turboScale":
+                turboScale = parseFraction(key, value, true);
+                break;
+            case "precisionScale":
+                precisionScale = parseFraction(key, value, true);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown driver profile setting '" + key + "'");
+        }
+    }
+
+    /**
+     * @param key The setting, for the error message.
+     * @param value The value to parse.
+     * @param allowOne Whether or not the value may be 1.
+     * @return The value, which is at least 0 and at most (or less than) 1.
+     * @throws IllegalArgumentException If the value is not a number or is out of range.
+     */
+    private static double parseFraction(String key, String value, boolean allowOne) {
+        double fraction = Double.parseDouble(value);
+        if (!(fraction >= 0 && (allowOne ? fraction <= 1 : fraction < 1))) {
+            throw new IllegalArgumentException("'" + key + "' must be at least 0 and "
+                    + (allowOne ? "at most 1" : "less than 1") + ", not " + value);
+        }
+        return fraction;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ResponseCurve getTranslationCurve() {
+        return translationCurve;
+    }
+
+    public ResponseCurve getRotationCurve() {
+        return rotationCurve;
+    }
+
+    public double getDeadband() {
+        return deadband;
+    }
+
+    public double getNormalScale() {
+        return Double.isNaN(normalScale) ? Tunables.driveInputDampening.get() : normalScale;
+    }
+
+    public double getTurboScale() {
+        return turboScale;
+    }
+
+    public double getPrecisionScale() {
+        return precisionScale;
+    }
+}
@@ -0,0 +1,122 @@
+package frc.robot.input;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Turns raw joystick axes into drive inputs using the selected {@link DriverProfile}. The translation
+ * stick uses a radial deadband, so the deadband is a circle and diagonal movement near the center is
+ * not distorted. Holding turbo or precision changes how much of the robot's top speed the full stick
+ * travel maps to.
+ *
+ * <p>{@link #update} is called once a loop and stores the result in fields, so it never allocates and
+ * always takes the same time. The profile is chosen on the dashboard.
+ */
+public class InputShaper {
+    private final SendableChooser<DriverProfile> profileChooser = new SendableChooser<>();
+    /** Written by the dashboard listener, read by the main loop. */
+    private volatile DriverProfile profile;
+
+    private double xSpeed = 0;
+    private double ySpeed = 0;
+    private double rot = 0;
+
+    /**
+     * Loads every profile in a directory and puts a chooser for them on the dashboard. The default
+     * profile (see {@link DriverProfile#DriverProfile(String)}) is always available, and a profile
+     * that cannot be loaded gets the default settings (see {@link DriverProfile#loadOrDefault(Path)}).
+     * 
+     * @param profileDirectory The directory of driver profiles.
+     */
+    public InputShaper(Path profileDirectory) {
+        profile = new DriverProfile("default");
+        profileChooser.setDefaultOption(profile.getName(), profile);
+        if (Files.isDirectory(profileDirectory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(profileDirectory, "*.txt")) {
+                for (Path file : files) {
+                    DriverProfile loaded = DriverProfile.loadOrDefault(file);
+                    profileChooser.addOption(loaded.getName(), loaded);
+                }
+            } catch (IOException e) {
+                DriverStation.reportError("Failed to list driver profiles: " + e.getMessage(), false);
+            }
+        }
+        profileChooser.onChange(this::setProfile);
+        SmartDashboard.putData("Driver Profile", profileChooser);
+    }
+
+    /**
+     * Switches to a profile, as if it was picked on the dashboard.
+     * 
+     * @param profile The profile to use from the next update.
+     */
+    void setProfile(DriverProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Shapes the joystick axes. The axes use the raw controller convention (pushing a stick forward
+     * or left is negative), and the results follow the robot's convention (forwards, left and
+     * counterclockwise are positive).
+     * 
+     * @param leftX The left stick x-axis.
+     * @param leftY The left stick y-axis.
+     * @param rightX The right stick x-axis.
+     * @param turbo Whether or not the turbo button is held.
+     * @param precision Whether or not the precision button is held. Precision wins over turbo.
+     */
+    public void update(double leftX, double leftY, double rightX, boolean turbo, boolean precision) {
+        DriverProfile current = profile;
+        double scale = precision ? current.getPrecisionScale()
+                : turbo ? current.getTurboScale() : current.getNormalScale();
+        double deadband = current.getDeadband();
+
+        // Radial deadband: rescale the stick's distance from the center so it starts at zero at the
+        // edge of the deadband and still reaches one at full deflection.
+        double magnitude = Math.hypot(leftX, leftY);
+        if (magnitude <= deadband) {
+            xSpeed = 0;
+            ySpeed = 0;
+        } else {
+            double rescaled = Math.min((magnitude - deadband) / (1 - deadband), 1);
+            double shaped = current.getTranslationCurve().apply(rescaled) * scale / magnitude;
+            xSpeed = -leftY * shaped;
+            ySpeed = -leftX * shaped;
+        }
+
+        double rotMagnitude = Math.abs(rightX);
+        if (rotMagnitude <= deadband) {
+            rot = 0;
+        } else {
+            double rescaled = Math.min((rotMagnitude - deadband) / (1 - deadband), 1);
+            rot = -Math.copySign(current.getRotationCurve().apply(rescaled) * scale, rightX);
+        }
+    }
+
+    /**
+     * @return The shaped x-speed (forwards) on a [-1.0, 1.0] scale.
+     */
+    public double getXSpeed() {
+        return xSpeed;
+    }
+
+    /**
+     * @return The shaped y-speed (leftwards) on a [-1.0, 1.0] scale.
+     */
+    public double getYSpeed() {
+        return ySpeed;
+    }
+
+    /**
+     * @return The shaped rotation (counterclockwise) on a [-1.0, 1.0] scale.
+     */
+    public double getRot() {
+        return rot;
+    }
+}
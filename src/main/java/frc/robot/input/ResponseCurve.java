@@ -0,0 +1,128 @@
+package frc.robot.input;
+
+/**
+ * Maps a joystick input to an output through a lookup table, so any curve costs the same to evaluate:
+ * one index calculation and one linear interpolation. The curve is defined on [0, 1] and mirrored
+ * for negative inputs, so it is always odd (f(-x) = -f(x)).
+ */
+public final class ResponseCurve {
+    /** Number of intervals in the lookup table. */
+    private static final int resolution = 256;
+
+    private final double[] table = new double[resolution + 1];
+
+    private ResponseCurve() {
+    }
+
+    /**
+     * @return A curve where the output is the input.
+     */
+    public static ResponseCurve linear() {
+        ResponseCurve curve = new ResponseCurve();
+        for (int i = 0; i <= resolution; i++) {
+            curve.table[i] = (double) i / resolution;
+        }
+        return curve;
+    }
+
+    /**
+     * A blend between a linear and a cubic response, y = weight * x^3 + (1 - weight) * x.
+     * 
+     * @param weight How much of the cubic to use, from 0 (linear) to 1 (pure cubic).
+     * @return The curve.
+     */
+    public static ResponseCurve cubic(double weight) {
+        ResponseCurve curve = new ResponseCurve();
+        for (int i = 0; i <= resolution; i++) {
+            double x = (double) i / resolution;
+            curve.table[i] = weight * x * x * x + (1 - weight) * x;
+        }
+        return curve;
+    }
+
+    /**
+     * An exponential response, y = (e^(k * x) - 1) / (e^k - 1). Larger values of k give finer
+     * control near the center.
+     * 
+     * @param k The steepness of the curve. Zero or less is linear.
+     * @return The curve.
+     */
+    public static ResponseCurve exponential(double k) {
+        if (k <= 0) {
+            return linear();
+        }
+        ResponseCurve curve = new ResponseCurve();
+        double scale = Math.expm1(k);
+        for (int i = 0; i <= resolution; i++) {
+            double x = (double) i / resolution;
+            curve.table[i] = Math.expm1(k * x) / scale;
+        }
+        return curve;
+    }
+
+    /**
+     * A curve through evenly spaced points, from an input of 0 to an input of 1.
+     * 
+     * @param points The outputs at evenly spaced inputs. There must be at least two.
+     * @return The curve.
+     */
+    public static ResponseCurve fromPoints(double... points) {
+        if (points.length < 2) {
+            throw new IllegalArgumentException("A response curve needs at least two points");
+        }
+        ResponseCurve curve = new ResponseCurve();
+        for (int i = 0; i <= resolution; i++) {
+            curve.table[i] = interpolate(points, (double) i / resolution);
+        }
+        return curve;
+    }
+
+    /**
+     * Parses a curve, as written in a driver profile: "linear", "cubic &lt;weight&gt;",
+     * "exponential &lt;k&gt;" or "points &lt;y0&gt; &lt;y1&gt; ...".
+     * 
+     * @param text The curve.
+     * @return The curve.
+     * @throws IllegalArgumentException If the curve is malformed.
+     */
+    public static ResponseCurve parse(String text) {
+        String[] fields = text.trim().split("\\s+");
+        try {
+            switch (fields[0]) {
+                case "linear":
+                    return linear();
+                case "cubic":
+                    return cubic(Double.parseDouble(fields[1]));
+                case "exponential":
+                    return exponential(Double.parseDouble(fields[1]));
+                case "points":
+                    double[] points = new double[fields.length - 1];
+                    for (int i = 0; i < points.length; i++) {
+                        points[i] = Double.parseDouble(fields[i + 1]);
+                    }
+                    return fromPoints(points);
+                default:
+                    throw new IllegalArgumentException("Unknown response curve '" + fields[0] + "'");
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed response curve '" + text + "'", e);
+        }
+    }
+
+    /**
+     * @param input The input on a [-1.0, 1.0] scale. Values outside are clamped.
+     * @return The output on a [-1.0, 1.0] scale.
+     */
+    public double apply(double input) {
+        double magnitude = Math.min(Math.abs(input), 1);
+        return Math.copySign(interpolate(table, magnitude), input);
+    }
+
+    /** Linearly interpolates evenly spaced samples over [0, 1]. */
+    private static double interpolate(double[] samples, double x) {
+        double position = x * (samples.length - 1);
+        int index = Math.min((int) position, samples.length - 2);
+        double fraction = position - index;
+        return samples[index] + (samples[index + 1] - samples[index]) * fraction;
+    }
+}
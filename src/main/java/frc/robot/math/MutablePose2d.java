@@ -0,0 +1,130 @@
+package frc.robot.math;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * A mutable equivalent of {@link Pose2d} for code that runs every loop, such as odometry. All of the
+ * operations update the pose in place. Like {@link MutableRotation2d}, it can only be turned into a
+ * {@link Pose2d} by copying, so code that runs every loop should read the fields directly.
+ */
+public class MutablePose2d {
+    private double x = 0;
+    private double y = 0;
+    private final MutableRotation2d rotation = new MutableRotation2d();
+
+    /** The last WPILib pose handed out by {@link #toPose2d()}. */
+    private Pose2d cachedPose = Pose2d.kZero;
+
+    /**
+     * Sets the pose.
+     * 
+     * @param x The x position in meters.
+     * @param y The y position in meters.
+     * @param radians The heading in radians.
+     * @return This pose, for chaining.
+     */
+    public MutablePose2d set(double x, double y, double radians) {
+        this.x = x;
+        this.y = y;
+        rotation.setRadians(radians);
+        return this;
+    }
+
+    /**
+     * Copies a WPILib pose.
+     * 
+     * @param pose The pose to copy.
+     * @return This pose, for chaining.
+     */
+    public MutablePose2d set(Pose2d pose) {
+        x = pose.getX();
+        y = pose.getY();
+        rotation.set(pose.getRotation());
+        return this;
+    }
+
+    /**
+     * Copies another pose.
+     * 
+     * @param pose The pose to copy.
+     * @return This pose, for chaining.
+     */
+    public MutablePose2d set(MutablePose2d pose) {
+        x = pose.x;
+        y = pose.y;
+        rotation.set(pose.rotation);
+        return this;
+    }
+
+    /**
+     * Moves the pose along a twist (a constant curvature arc) in place. This is the same as
+     * {@link Pose2d#exp(edu.wpi.first.math.geometry.Twist2d)}.
+     * 
+     * @param dx The change in x relative to the robot, in meters.
+     * @param dy The change in y relative to the robot, in meters.
+     * @param dtheta The change in heading, in radians.
+     * @return This pose, for chaining.
+     */
+    public MutablePose2d exp(double dx, double dy, double dtheta) {
+        double sinTheta = Math.sin(dtheta);
+        double cosTheta = Math.cos(dtheta);
+        double s;
+        double c;
+        if (Math.abs(dtheta) < 1e-9) {
+            s = 1.0 - 1.0 / 6.0 * dtheta * dtheta;
+            c = 0.5 * dtheta;
+        } else {
+            s = sinTheta / dtheta;
+            c = (1 - cosTheta) / dtheta;
+        }
+        // Translation of the twist relative to the robot, then rotated into the field frame.
+        double localX = dx * s - dy * c;
+        double localY = dx * c + dy * s;
+        x += localX * rotation.getCos() - localY * rotation.getSin();
+        y += localX * rotation.getSin() + localY * rotation.getCos();
+        rotation.setComponents(rotation.getCos() * cosTheta - rotation.getSin() * sinTheta,
+                rotation.getCos() * sinTheta + rotation.getSin() * cosTheta);
+        return this;
+    }
+
+    /**
+     * @return The x position in meters.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return The y position in meters.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return The heading. This is the pose's own rotation, so changing it changes the pose.
+     */
+    public MutableRotation2d getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Copies this pose into a WPILib pose for use at API boundaries. This is not zero-copy: a new
+     * object is created whenever the pose has changed since the last call, which is every loop while
+     * the robot moves. Only repeated calls with an unchanged pose reuse the last copy.
+     * 
+     * @return An immutable copy of this pose.
+     */
+    public Pose2d toPose2d() {
+        if (cachedPose.getX() != x || cachedPose.getY() != y
+                || cachedPose.getRotation().getRadians() != rotation.getRadians()) {
+            cachedPose = new Pose2d(x, y, rotation.toRotation2d());
+        }
+        return cachedPose;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MutablePose2d(X: %.2f, Y: %.2f, %s)", x, y, rotation);
+    }
+}
@@ -0,0 +1,157 @@
+package frc.robot.math;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * A mutable equivalent of {@link Rotation2d} for code that runs every loop. The sine and cosine are
+ * cached whenever the angle changes, so reading them is free, and updating the angle in place avoids
+ * creating garbage. The angle is always kept within [-pi, pi).
+ *
+ * <p>{@link Rotation2d} is immutable, so there is no way to hand one out without copying. Code that
+ * runs every loop should read the angle, sine and cosine from this class directly, and only convert
+ * with {@link #toRotation2d()} at the edges, such as logging or the dashboard.
+ */
+public class MutableRotation2d {
+    private double radians = 0;
+    private double cos = 1;
+    private double sin = 0;
+
+    /** The last WPILib rotation handed out by {@link #toRotation2d()}. */
+    private Rotation2d cachedRotation = Rotation2d.kZero;
+
+    public MutableRotation2d() {
+    }
+
+    /**
+     * @param radians The initial angle in radians.
+     */
+    public MutableRotation2d(double radians) {
+        setRadians(radians);
+    }
+
+    /**
+     * Sets the angle, recomputing the sine and cosine.
+     * 
+     * @param radians The new angle in radians.
+     * @return This rotation, for chaining.
+     */
+    public MutableRotation2d setRadians(double radians) {
+        this.radians = wrap(radians);
+        cos = Math.cos(this.radians);
+        sin = Math.sin(this.radians);
+        return this;
+    }
+
+    /**
+     * Sets the angle from a cosine and sine pair, which do not need to be normalized.
+     * 
+     * @param x The x component (cosine) of the angle.
+     * @param y The y component (sine) of the angle.
+     * @return This rotation, for chaining.
+     */
+    public MutableRotation2d setComponents(double x, double y) {
+        double magnitude = Math.hypot(x, y);
+        if (magnitude > 1e-6) {
+            cos = x / magnitude;
+            sin = y / magnitude;
+        } else {
+            cos = 1;
+            sin = 0;
+        }
+        radians = wrap(Math.atan2(sin, cos));
+        return this;
+    }
+
+    /**
+     * Copies another rotation without recomputing any trigonometry.
+     * 
+     * @param other The rotation to copy.
+     * @return This rotation, for chaining.
+     */
+    public MutableRotation2d set(MutableRotation2d other) {
+        radians = other.radians;
+        cos = other.cos;
+        sin = other.sin;
+        return this;
+    }
+
+    /**
+     * Copies a WPILib rotation without recomputing any trigonometry.
+     * 
+     * @param other The rotation to copy.
+     * @return This rotation, for chaining.
+     */
+    public MutableRotation2d set(Rotation2d other) {
+        radians = wrap(other.getRadians());
+        cos = other.getCos();
+        sin = other.getSin();
+        return this;
+    }
+
+    /**
+     * Rotates this rotation by another in place using the angle addition identities.
+     * 
+     * @param other The rotation to add.
+     * @return This rotation, for chaining.
+     */
+    public MutableRotation2d rotateBy(MutableRotation2d other) {
+        return setComponents(cos * other.cos - sin * other.sin, cos * other.sin + sin * other.cos);
+    }
+
+    /**
+     * @return The angle in radians, within [-pi, pi).
+     */
+    public double getRadians() {
+        return radians;
+    }
+
+    /**
+     * @return The angle in degrees, within [-180, 180).
+     */
+    public double getDegrees() {
+        return Math.toDegrees(radians);
+    }
+
+    /**
+     * @return The cosine of the angle.
+     */
+    public double getCos() {
+        return cos;
+    }
+
+    /**
+     * @return The sine of the angle.
+     */
+    public double getSin() {
+        return sin;
+    }
+
+    /**
+     * Copies this rotation into a WPILib rotation for use at API boundaries. This is not zero-copy: a
+     * new object is created whenever the angle has changed since the last call, which is every loop
+     * while the robot turns. Only repeated calls with an unchanged angle reuse the last copy.
+     * 
+     * @return An immutable copy of this rotation.
+     */
+    public Rotation2d toRotation2d() {
+        if (cachedRotation.getRadians() != radians) {
+            cachedRotation = new Rotation2d(radians);
+        }
+        return cachedRotation;
+    }
+
+    /**
+     * Wraps an angle to [-pi, pi). {@link MathUtil#angleModulus(double)} and atan2 both map pi and -pi
+     * to pi, so that end is moved to -pi.
+     */
+    private static double wrap(double radians) {
+        double wrapped = MathUtil.angleModulus(radians);
+        return wrapped >= Math.PI ? wrapped - 2 * Math.PI : wrapped;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MutableRotation2d(Rads: %.2f, Deg: %.2f)", radians, getDegrees());
+    }
+}
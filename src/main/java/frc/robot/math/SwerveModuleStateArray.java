@@ -0,0 +1,164 @@
+package frc.robot.math;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * A fixed-size set of swerve module states (speed and angle) that is reused every loop, along with
+ * allocation free inverse kinematics. This replaces
+ * {@link edu.wpi.first.math.kinematics.SwerveDriveKinematics#toSwerveModuleStates}, which creates a
+ * new array of states on every call. The modules are in the same order as the locations passed to
+ * the constructor.
+ */
+public class SwerveModuleStateArray {
+    private final double[] moduleX;
+    private final double[] moduleY;
+    private final double[] speeds;
+    private final MutableRotation2d[] angles;
+
+    /**
+     * @param moduleLocations The location of each module relative to the center of the robot, in
+     * meters.
+     */
+    public SwerveModuleStateArray(Translation2d... moduleLocations) {
+        int count = moduleLocations.length;
+        moduleX = new double[count];
+        moduleY = new double[count];
+        speeds = new double[count];
+        angles = new MutableRotation2d[count];
+        for (int i = 0; i < count; i++) {
+            moduleX[i] = moduleLocations[i].getX();
+            moduleY[i] = moduleLocations[i].getY();
+            angles[i] = new MutableRotation2d();
+        }
+    }
+
+    /**
+     * Computes the state of each module from robot relative chassis speeds. If the robot is not
+     * moving, the module angles are left as they were so the wheels do not snap back to zero.
+     * 
+     * @param vx The forward speed in meters per second.
+     * @param vy The leftward speed in meters per second.
+     * @param omega The counterclockwise angular speed in radians per second.
+     */
+    public void setFromChassisSpeeds(double vx, double vy, double omega) {
+        boolean stopped = vx == 0 && vy == 0 && omega == 0;
+        for (int i = 0; i < speeds.length; i++) {
+            if (stopped) {
+                speeds[i] = 0;
+                continue;
+            }
+            double moduleVx = vx - omega * moduleY[i];
+            double moduleVy = vy + omega * moduleX[i];
+            speeds[i] = Math.hypot(moduleVx, moduleVy);
+            angles[i].setComponents(moduleVx, moduleVy);
+        }
+    }
+
+    /**
+     * Scales every module speed down evenly so none exceed the maximum, keeping the ratios between
+     * the modules (and so the direction of travel) the same.
+     * 
+     * @param maxSpeed The maximum speed of a module in meters per second.
+     */
+    public void desaturate(double maxSpeed) {
+        double fastest = 0;
+        for (double speed : speeds) {
+            fastest = Math.max(fastest, Math.abs(speed));
+        }
+        if (fastest > maxSpeed) {
+            double scale = maxSpeed / fastest;
+            for (int i = 0; i < speeds.length; i++) {
+                speeds[i] *= scale;
+            }
+        }
+    }
+
+    /**
+     * Computes the robot relative chassis speeds from the module states (forward kinematics). This
+     * is the least squares solution, and assumes the modules are centered around the robot's center.
+     * 
+     * @param out The chassis speeds to write into. Its fields are overwritten.
+     * @return The chassis speeds passed in, for chaining.
+     */
+    public ChassisSpeeds toChassisSpeeds(ChassisSpeeds out) {
+        double vx = 0;
+        double vy = 0;
+        double angularSum = 0;
+        double radiusSquaredSum = 0;
+        for (int i = 0; i < speeds.length; i++) {
+            double moduleVx = speeds[i] * angles[i].getCos();
+            double moduleVy = speeds[i] * angles[i].getSin();
+            vx += moduleVx;
+            vy += moduleVy;
+            angularSum += moduleX[i] * moduleVy - moduleY[i] * moduleVx;
+            radiusSquaredSum += moduleX[i] * moduleX[i] + moduleY[i] * moduleY[i];
+        }
+        out.vxMetersPerSecond = vx / speeds.length;
+        out.vyMetersPerSecond = vy / speeds.length;
+        out.omegaRadiansPerSecond = radiusSquaredSum > 0 ? angularSum / radiusSquaredSum : 0;
+        return out;
+    }
+
+    /**
+     * Sets the state of a single module.
+     * 
+     * @param module The index of the module.
+     * @param speed The speed of the module in meters per second.
+     * @param angleRadians The angle of the module relative to the robot, in radians.
+     */
+    public void set(int module, double speed, double angleRadians) {
+        speeds[module] = speed;
+        angles[module].setRadians(angleRadians);
+    }
+
+    /**
+     * Copies WPILib module states into this array.
+     * 
+     * @param states The states to copy, in module order.
+     */
+    public void set(SwerveModuleState[] states) {
+        for (int i = 0; i < speeds.length; i++) {
+            speeds[i] = states[i].speedMetersPerSecond;
+            angles[i].set(states[i].angle);
+        }
+    }
+
+    /**
+     * Writes this array into existing WPILib module states. The speed is written in place, but the
+     * angle is copied with {@link MutableRotation2d#toRotation2d()}, which allocates whenever the angle
+     * has changed.
+     * 
+     * @param states The states to write into, in module order.
+     */
+    public void copyTo(SwerveModuleState[] states) {
+        for (int i = 0; i < speeds.length; i++) {
+            states[i].speedMetersPerSecond = speeds[i];
+            states[i].angle = angles[i].toRotation2d();
+        }
+    }
+
+    /**
+     * @return The number of modules.
+     */
+    public int size() {
+        return speeds.length;
+    }
+
+    /**
+     * @param module The index of the module.
+     * @return The speed of the module in meters per second.
+     */
+    public double getSpeed(int module) {
+        return speeds[module];
+    }
+
+    /**
+     * @param module The index of the module.
+     * @return The angle of the module relative to the robot. This is owned by the array.
+     */
+    public MutableRotation2d getAngle(int module) {
+        return angles[module];
+    }
+}
@@ -0,0 +1,122 @@
+package frc.robot.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.XboxController;
+import edu.wpi.first.wpilibj.simulation.XboxControllerSim;
+
+/**
+ * A timed sequence of controller inputs for the headless match simulator. Each step holds the sticks
+ * and buttons for a fixed duration. After the last step, every input is released.
+ */
+public class ControllerScript {
+    /** A set of inputs held for a duration. */
+    private record Step(double durationSeconds, double leftX, double leftY, double rightX,
+            XboxController.Button[] buttons) {
+    }
+
+    private final List<Step> steps = new ArrayList<>();
+    private double totalSeconds = 0;
+
+    /* Playback state, so finding the current step does not search the whole script. */
+    private int currentStep = 0;
+    private double currentStepStart = 0;
+
+    /**
+     * Adds a step to the end of the script. The axes use the raw controller convention, so pushing
+     * the left stick forward is a negative leftY.
+     * 
+     * @param durationSeconds How long to hold the inputs.
+     * @param leftX The left stick x-axis.
+     * @param leftY The left stick y-axis.
+     * @param rightX The right stick x-axis.
+     * @param buttons The buttons to hold.
+     * @return This script, for chaining.
+     */
+    public ControllerScript hold(double durationSeconds, double leftX, double leftY, double rightX,
+            XboxController.Button... buttons) {
+        steps.add(new Step(durationSeconds, leftX, leftY, rightX, buttons));
+        totalSeconds += durationSeconds;
+        return this;
+    }
+
+    /**
+     * Adds a step where nothing is pressed.
+     * 
+     * @param durationSeconds How long to wait.
+     * @return This script, for chaining.
+     */
+    public ControllerScript idle(double durationSeconds) {
+        return hold(durationSeconds, 0, 0, 0);
+    }
+
+    /**
+     * @return The length of the script in seconds.
+     */
+    public double getTotalSeconds() {
+        return totalSeconds;
+    }
+
+    /** Rewinds the script to the start. */
+    public void reset() {
+        currentStep = 0;
+        currentStepStart = 0;
+    }
+
+    /**
+     * Writes the inputs for the given time to the simulated controller. Time must not go backwards
+     * between calls unless the script is {@link #reset()}.
+     * 
+     * @param timeSeconds The time since the script started.
+     * @param controller The simulated controller to write to.
+     */
+    public void apply(double timeSeconds, XboxControllerSim controller) {
+        while (currentStep < steps.size()
+                && timeSeconds >= currentStepStart + steps.get(currentStep).durationSeconds()) {
+            currentStepStart += steps.get(currentStep).durationSeconds();
+            currentStep++;
+        }
+        for (XboxController.Button button : XboxController.Button.values()) {
+            controller.setRawButton(button.value, false);
+        }
+        if (currentStep >= steps.size()) {
+            controller.setLeftX(0);
+            controller.setLeftY(0);
+            controller.setRightX(0);
+            return;
+        }
+        Step step = steps.get(currentStep);
+        controller.setLeftX(step.leftX());
+        controller.setLeftY(step.leftY());
+        controller.setRightX(step.rightX());
+        for (XboxController.Button button : step.buttons()) {
+            controller.setRawButton(button.value, true);
+        }
+    }
+
+    /**
+     * A teleop script that drives a square, spins one way and then back the other way, and strafes
+     * diagonally out and back. Every movement is undone, so the robot should finish where it started
+     * no matter how the inputs are scaled.
+     * 
+     * @return A new script.
+     */
+    public static ControllerScript returnToStart() {
+        ControllerScript script = new ControllerScript();
+        for (int lap = 0; lap < 3; lap++) {
+            script.hold(2, 0, -0.8, 0)
+                    .hold(2, 0.8, 0, 0)
+                    .hold(2, 0, 0.8, 0)
+                    .hold(2, -0.8, 0, 0)
+                    .idle(1)
+                    .hold(3, 0, 0, 0.6)
+                    .hold(3, 0, 0, -0.6)
+                    .idle(1)
+                    .hold(1.5, 0.5, -0.5, 0)
+                    .hold(1.5, -0.5, 0.5, 0)
+                    .idle(1);
+        }
+        return script;
+    }
+}
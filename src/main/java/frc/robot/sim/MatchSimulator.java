@@ -0,0 +1,201 @@
+package frc.robot.sim;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.simulation.XboxControllerSim;
+import frc.robot.Constants.OperatorConstants;
+import frc.robot.Constants.PathPlanningConstants;
+import frc.robot.Robot;
+import frc.robot.subsystems.drivetrain.DrivetrainSubsystem;
+import frc.robot.subsystems.superstructure.Superstructure;
+
+/**
+ * Runs simulated matches without the {@link TimedRobot} clock, as fast as the CPU allows. The HAL
+ * simulation clock is paused and each loop of {@link Robot} is run and then the clock is stepped by
+ * hand, so a full match takes a few seconds. The robot runs its autonomous routine, and then in teleop
+ * it is driven by a {@link ControllerScript}. The cost of every loop, the pose error at the end of
+ * each phase and whether auto shot its preload are reported. The process exits with a non-zero status
+ * if a budget is exceeded, so it can be used in CI.
+ *
+ * <p>The swerve modules follow their setpoints with a first order lag (see
+ * {@link frc.robot.subsystems.drivetrain.SwerveModule#simulationPeriodic(double)}), and the heading is
+ * integrated from the modules. Wheel slip, friction and gyro drift are not simulated, so the pose
+ * errors show how well the control code copes with slow modules, not how accurate a real robot is.
+ *
+ * <p>Run with {@code ./gradlew simulateMatch -Pmatches=100}. The arguments are
+ * {@code [matches] [max p99 loop time in ms] [max pose error in meters] [max heading error in degrees]}.
+ */
+public final class MatchSimulator {
+    private static final double autonomousSeconds = 15;
+    private static final double teleopSeconds = 135;
+    private static final double loopPeriod = TimedRobot.kDefaultPeriod;
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    /** Bytes allocated inside the timed part of each loop, for the current match. */
+    private static long allocatedBytes = 0;
+
+    private MatchSimulator() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    public static void main(String... args) {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        double maxP99Millis = args.length > 1 ? Double.parseDouble(args[1]) : 5.0;
+        double maxPoseError = args.length > 2 ? Double.parseDouble(args[2]) : 0.05;
+        double maxHeadingErrorDegrees = args.length > 3 ? Double.parseDouble(args[3]) : 2.0;
+
+        if (!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL.");
+        }
+        SimHooks.pauseTiming();
+        DriverStationSim.setDsAttached(true);
+        // The poses below are checked against the blue targets, so play as blue.
+        DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+
+        System.out.println("Modules are simulated with a first order lag and no wheel slip, friction or gyro "
+                + "drift, so the pose errors below only check the control code against that model.");
+        Robot robot = new Robot();
+        DrivetrainSubsystem drivetrain = robot.getRobotContainer().getDrivetrain();
+        Superstructure superstructure = robot.getRobotContainer().getSuperstructure();
+        XboxControllerSim controller = new XboxControllerSim(OperatorConstants.primaryControllerPort);
+        // The drivers cannot touch the controller during auto.
+        ControllerScript autonomousScript = new ControllerScript().idle(autonomousSeconds);
+        ControllerScript teleopScript = ControllerScript.returnToStart();
+
+        int loopsPerMatch = (int) Math.round((autonomousSeconds + teleopSeconds) / loopPeriod);
+        long[] loopNanos = new long[loopsPerMatch];
+        double worstP99Millis = 0;
+        double worstPoseError = 0;
+        double worstHeadingErrorDegrees = 0;
+        int missedShots = 0;
+
+        for (int match = 0; match < matches; match++) {
+            // Disable the robot and put the drivetrain back at rest, as between real matches.
+            autonomousScript.reset();
+            teleopScript.reset();
+            autonomousScript.apply(0, controller);
+            DriverStationSim.setEnabled(false);
+            DriverStationSim.notifyNewData();
+            robot.runLoop();
+            drivetrain.resetSimulation(Pose2d.kZero);
+
+            allocatedBytes = 0;
+            int loop = 0;
+            int shotsBefore = countShots(superstructure);
+            loop = runPhase(robot, true, autonomousSeconds, autonomousScript, controller, loopNanos, loop);
+            Pose2d autonomousPose = drivetrain.getPose();
+            boolean shot = countShots(superstructure) > shotsBefore;
+            if (!shot) {
+                missedShots++;
+            }
+            loop = runPhase(robot, false, teleopSeconds, teleopScript, controller, loopNanos, loop);
+            Pose2d finalPose = drivetrain.getPose();
+
+            // Auto should finish at the shooting pose, and the teleop script undoes all of its
+            // movements, so the robot should end where auto left it.
+            double autonomousError = distance(autonomousPose, PathPlanningConstants.blueShootingPose);
+            double autonomousHeadingError = headingErrorDegrees(autonomousPose, PathPlanningConstants.blueShootingPose);
+            double teleopError = distance(finalPose, autonomousPose);
+            double teleopHeadingError = headingErrorDegrees(finalPose, autonomousPose);
+
+            double[] stats = loopStatistics(loopNanos, loop);
+            worstP99Millis = Math.max(worstP99Millis, stats[2]);
+            worstPoseError = Math.max(worstPoseError, Math.max(autonomousError, teleopError));
+            worstHeadingErrorDegrees = Math.max(worstHeadingErrorDegrees,
+                    Math.max(autonomousHeadingError, teleopHeadingError));
+            System.out.printf(
+                    "Match %d: loop mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms, %.0f bytes/loop, "
+                            + "auto error %.3f m %.2f deg, %s, teleop error %.3f m %.2f deg%n",
+                    match + 1, stats[0], stats[1], stats[2], stats[3], (double) allocatedBytes / loop,
+                    autonomousError, autonomousHeadingError, shot ? "shot" : "did not shoot", teleopError,
+                    teleopHeadingError);
+        }
+
+        boolean passed = worstP99Millis <= maxP99Millis && worstPoseError <= maxPoseError
+                && worstHeadingErrorDegrees <= maxHeadingErrorDegrees && missedShots == 0;
+        System.out.printf("Worst p99 loop %.3f ms (budget %.3f ms), worst pose error %.3f m (budget %.3f m), "
+                + "worst heading error %.2f deg (budget %.2f deg), %d autos did not shoot: %s%n",
+                worstP99Millis, maxP99Millis, worstPoseError, maxPoseError, worstHeadingErrorDegrees,
+                maxHeadingErrorDegrees, missedShots, passed ? "PASS" : "FAIL");
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Runs one phase of a match, stepping the simulation clock by one loop period at a time.
+     * 
+     * @param robot The robot.
+     * @param autonomous Whether this is the autonomous phase.
+     * @param seconds The length of the phase.
+     * @param script The controller inputs for this phase.
+     * @param controller The simulated controller.
+     * @param loopNanos Where the cost of each loop is recorded.
+     * @param loop The index of the first loop of this phase.
+     * @return The index of the loop after the last loop of this phase.
+     */
+    private static int runPhase(Robot robot, boolean autonomous, double seconds, ControllerScript script,
+            XboxControllerSim controller, long[] loopNanos, int loop) {
+        DriverStationSim.setAutonomous(autonomous);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+
+        int loops = (int) Math.round(seconds / loopPeriod);
+        for (int i = 0; i < loops && loop < loopNanos.length; i++) {
+            script.apply(i * loopPeriod, controller);
+            DriverStationSim.notifyNewData();
+            // Time one loop of the robot, including the mode init functions when the mode changes.
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            robot.runLoop();
+            loopNanos[loop++] = System.nanoTime() - start;
+            allocatedBytes += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            SimHooks.stepTiming(loopPeriod);
+        }
+        return loop;
+    }
+
+    /**
+     * @return How many times the superstructure has started shooting since the robot turned on.
+     */
+    private static int countShots(Superstructure superstructure) {
+        int shots = 0;
+        for (Superstructure.State from : Superstructure.State.values()) {
+            shots += superstructure.getTransitionCount(from, Superstructure.State.SHOOTING);
+        }
+        return shots;
+    }
+
+    private static double distance(Pose2d a, Pose2d b) {
+        return Math.hypot(a.getX() - b.getX(), a.getY() - b.getY());
+    }
+
+    private static double headingErrorDegrees(Pose2d a, Pose2d b) {
+        return Math.abs(Math.toDegrees(
+                MathUtil.angleModulus(a.getRotation().getRadians() - b.getRotation().getRadians())));
+    }
+
+    /**
+     * @return [mean, p50, p99, max] of the first count loops, in milliseconds.
+     */
+    private static double[] loopStatistics(long[] loopNanos, int count) {
+        long[] sorted = Arrays.copyOf(loopNanos, count);
+        Arrays.sort(sorted);
+        double total = 0;
+        for (long nanos : sorted) {
+            total += nanos;
+        }
+        return new double[] {
+                total / count / 1e6,
+                sorted[count / 2] / 1e6,
+                sorted[Math.min(count - 1, (int) (count * 0.99))] / 1e6,
+                sorted[count - 1] / 1e6 };
+    }
+}
@@ -0,0 +1,133 @@
+package frc.robot.subsystems.drivetrain;
+
+import java.lang.management.ManagementFactory;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.math.MutablePose2d;
+import frc.robot.math.MutableRotation2d;
+import frc.robot.math.SwerveModuleStateArray;
+
+/**
+ * Compares the garbage created and the time taken by one loop of field relative driving and odometry,
+ * done the way the drivetrain used to (with WPILib's immutable geometry and kinematics) and the way it
+ * does now (with the mutable types in frc.robot.math). The hardware calls are left out, so only the
+ * math is measured. Run with {@code ./gradlew benchmarkDrive}.
+ *
+ * <p>This only covers the drivetrain's loop. The old code is gone, so a whole simulated match can only
+ * be run with the new code, and {@link frc.robot.sim.MatchSimulator} reports its bytes per loop on
+ * their own. Compare those between commits rather than against this benchmark.
+ */
+public final class DriveAllocationBenchmark {
+    private static final int warmupLoops = 200_000;
+    private static final int timedLoops = 1_000_000;
+    private static final double[] angularOffsets = {
+            DriveConstants.frontLeftAngularOffset, DriveConstants.frontRightAngularOffset,
+            DriveConstants.backLeftAngularOffset, DriveConstants.backRightAngularOffset };
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /* Loop state for the WPILib version. */
+    private static final SwerveDriveKinematics kinematics = new SwerveDriveKinematics(DriveConstants.moduleLocations);
+    private static Pose2d wpilibPose = Pose2d.kZero;
+
+    /* Loop state for the mutable version. */
+    private static final SwerveModuleStateArray states = new SwerveModuleStateArray(DriveConstants.moduleLocations);
+    private static final MutableRotation2d heading = new MutableRotation2d();
+    private static final MutablePose2d mutablePose = new MutablePose2d();
+
+    /** Every result is added to this and printed, so the JIT cannot skip the work. */
+    private static double checksum = 0;
+
+    private DriveAllocationBenchmark() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    public static void main(String... args) {
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("This JVM cannot measure allocations per thread.");
+        }
+        // Let the JIT compile both versions before measuring them.
+        run(true, warmupLoops);
+        run(false, warmupLoops);
+
+        double[] wpilib = run(true, timedLoops);
+        double[] mutable = run(false, timedLoops);
+        System.out.printf("WPILib geometry:  %.1f bytes/loop, %.3f us/loop%n", wpilib[0], wpilib[1]);
+        System.out.printf("Mutable geometry: %.1f bytes/loop, %.3f us/loop%n", mutable[0], mutable[1]);
+        System.out.printf("(checksum %.3f)%n", checksum);
+    }
+
+    /**
+     * @return [bytes allocated per loop, microseconds per loop].
+     */
+    private static double[] run(boolean wpilib, int loops) {
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            // Inputs that change every loop, like a driver sweeping the sticks.
+            double phase = i * 0.001;
+            double xSpeed = Math.sin(phase);
+            double ySpeed = Math.cos(phase * 1.3);
+            double rot = Math.sin(phase * 0.7);
+            double headingRadians = phase * 2;
+            double moduleRadians = phase * 3;
+            if (wpilib) {
+                wpilibLoop(xSpeed, ySpeed, rot, headingRadians, moduleRadians);
+            } else {
+                mutableLoop(xSpeed, ySpeed, rot, headingRadians, moduleRadians);
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new double[] { (double) allocated / loops, nanos / 1e3 / loops };
+    }
+
+    /** What DrivetrainSubsystem.drive() and SwerveModule.setDesiredState() used to do. */
+    private static void wpilibLoop(double xSpeed, double ySpeed, double rot, double headingRadians,
+            double moduleRadians) {
+        SwerveModuleState[] desired = kinematics.toSwerveModuleStates(ChassisSpeeds.fromFieldRelativeSpeeds(
+                xSpeed * DriveConstants.maxSpeed, ySpeed * DriveConstants.maxSpeed,
+                rot * DriveConstants.maxAngularSpeed, Rotation2d.fromRadians(headingRadians)));
+        SwerveDriveKinematics.desaturateWheelSpeeds(desired, DriveConstants.maxSpeed);
+        for (int module = 0; module < desired.length; module++) {
+            SwerveModuleState corrected = new SwerveModuleState();
+            corrected.speedMetersPerSecond = desired[module].speedMetersPerSecond;
+            corrected.angle = desired[module].angle.plus(Rotation2d.fromRadians(angularOffsets[module]));
+            corrected.optimize(new Rotation2d(moduleRadians));
+            checksum += corrected.speedMetersPerSecond + corrected.angle.getRadians();
+        }
+        wpilibPose = wpilibPose.exp(new Twist2d(xSpeed * 0.02, ySpeed * 0.02, rot * 0.02));
+        checksum += wpilibPose.getX();
+    }
+
+    /** What DrivetrainSubsystem.drive() and SwerveModule.setDesiredState() do now. */
+    private static void mutableLoop(double xSpeed, double ySpeed, double rot, double headingRadians,
+            double moduleRadians) {
+        double xSpeedDelivered = xSpeed * DriveConstants.maxSpeed;
+        double ySpeedDelivered = ySpeed * DriveConstants.maxSpeed;
+        heading.setRadians(headingRadians);
+        double robotX = xSpeedDelivered * heading.getCos() + ySpeedDelivered * heading.getSin();
+        double robotY = -xSpeedDelivered * heading.getSin() + ySpeedDelivered * heading.getCos();
+        states.setFromChassisSpeeds(robotX, robotY, rot * DriveConstants.maxAngularSpeed);
+        states.desaturate(DriveConstants.maxSpeed);
+        for (int module = 0; module < states.size(); module++) {
+            double speed = states.getSpeed(module);
+            double angle = states.getAngle(module).getRadians() + angularOffsets[module];
+            if (SwerveModule.shouldReverse(angle, moduleRadians)) {
+                speed = -speed;
+                angle += Math.PI;
+            }
+            checksum += speed + MathUtil.angleModulus(angle);
+        }
+        mutablePose.exp(xSpeed * 0.02, ySpeed * 0.02, rot * 0.02);
+        checksum += mutablePose.getX();
+    }
+}
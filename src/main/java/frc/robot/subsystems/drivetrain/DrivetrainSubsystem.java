@@ -3,12 +3,20 @@ package frc.robot.subsystems.drivetrain;
 import com.studica.frc.AHRS;
 import com.studica.frc.AHRS.NavXComType;
 
+import java.util.function.DoubleConsumer;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
-import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.DriveConstants;
+import frc.robot.Tunables;
+import frc.robot.math.MutablePose2d;
+import frc.robot.math.SwerveModuleStateArray;
 
 /**
  * The robot uses four swerve modules in a square configuration. The code is based on the template
@@ -18,26 +26,71 @@ public class DrivetrainSubsystem extends SubsystemBase {
     private final SwerveModule frontLeft = new SwerveModule(
             DriveConstants.frontLeftDrivingId,
             DriveConstants.frontLeftTurningId,
-            DriveConstants.frontLeftAngularOffset);
+            Tunables.frontLeftAngularOffset.get());
     private final SwerveModule frontRight = new SwerveModule(
             DriveConstants.frontRightDrivingId,
             DriveConstants.frontRightTurningId,
-            DriveConstants.frontRightAngularOffset);
+            Tunables.frontRightAngularOffset.get());
     private final SwerveModule backRight = new SwerveModule(
             DriveConstants.backRightDrivingId,
             DriveConstants.backRightTurningId,
-            DriveConstants.backRightAngularOffset);
+            Tunables.backRightAngularOffset.get());
     private final SwerveModule backLeft = new SwerveModule(
             DriveConstants.backLeftDrivingId,
             DriveConstants.backLeftTurningId,
-            DriveConstants.backLeftAngularOffset);
+            Tunables.backLeftAngularOffset.get());
 
     /** The robot uses a Studica NavX2 MXP IMU accelerometer connected to the MXP port on the RoboRio.
      * All measurements are given in terms of degrees. */
     private final AHRS gyro = new AHRS(NavXComType.kMXP_SPI);
 
+    /** The modules in the order [frontLeft, frontRight, backLeft, backRight]. */
+    private final SwerveModule[] modules = { frontLeft, frontRight, backLeft, backRight };
+
+    /* Reused every loop so driving does not create garbage. */
+    private final SwerveModuleStateArray desiredStates = new SwerveModuleStateArray(DriveConstants.moduleLocations);
+
+    /* Odometry. The rotation of the pose is the robot's heading on the field, which everything that
+    turns the robot or drives field relative uses. The gyro only provides the change each loop. */
+    private final MutablePose2d pose = new MutablePose2d();
+    private final double[] lastModulePositions = new double[4];
+    private double lastGyroRadians = 0;
+    /** When the odometry was last updated, so the angular velocity uses the real loop time. */
+    private double lastOdometryTimestamp = 0;
+    private double angularVelocity = 0;
+    /** Whether the pose has been set to a known place on the field since the robot turned on. */
+    private boolean poseSeeded = false;
+
+    /** Set when a tunable module gain or limit changes, so the SPARK MAXes are updated. */
+    private boolean tunedConfigsChanged = false;
+
+    /* Simulation. */
+    private final SwerveModuleStateArray measuredStates = new SwerveModuleStateArray(DriveConstants.moduleLocations);
+    private final ChassisSpeeds measuredSpeeds = new ChassisSpeeds();
+    private double simulatedHeadingRadians = 0;
+    private double lastSimulationTimestamp = 0;
+
     public DrivetrainSubsystem() {
-        zeroHeading();
+        lastGyroRadians = readGyroRadians();
+        lastOdometryTimestamp = Timer.getFPGATimestamp();
+        lastSimulationTimestamp = lastOdometryTimestamp;
+        Tunables.frontLeftAngularOffset.onChange(frontLeft::setAngularOffset);
+        Tunables.frontRightAngularOffset.onChange(frontRight::setAngularOffset);
+        Tunables.backLeftAngularOffset.onChange(backLeft::setAngularOffset);
+        Tunables.backRightAngularOffset.onChange(backRight::setAngularOffset);
+        // Several gains often change at once, so push them all to the modules once in periodic().
+        DoubleConsumer applyTunedConfigs = value -> tunedConfigsChanged = true;
+        Tunables.drivingKp.onChange(applyTunedConfigs);
+        Tunables.drivingKs.onChange(applyTunedConfigs);
+        Tunables.drivingKv.onChange(applyTunedConfigs);
+        Tunables.drivingKa.onChange(applyTunedConfigs);
+        Tunables.drivingCurrentLimit.onChange(applyTunedConfigs);
+        Tunables.turningKp.onChange(applyTunedConfigs);
+        Tunables.turningKd.onChange(applyTunedConfigs);
+        Tunables.turningCurrentLimit.onChange(applyTunedConfigs);
+        for (int i = 0; i < modules.length; i++) {
+            lastModulePositions[i] = modules[i].getDrivingPosition();
+        }
     }
 
     /**
@@ -56,14 +109,17 @@ public class DrivetrainSubsystem extends SubsystemBase {
         double ySpeedDelivered = ySpeed * DriveConstants.maxSpeed;
         double rotDelivered = rot * DriveConstants.maxAngularSpeed;
 
-        var swerveModuleStates = DriveConstants.driveKinematics.toSwerveModuleStates(
-                fieldRelative
-                        ? ChassisSpeeds.fromFieldRelativeSpeeds(xSpeedDelivered,
-                                ySpeedDelivered,
-                                rotDelivered,
-                                getHeading())
-                        : new ChassisSpeeds(xSpeedDelivered, ySpeedDelivered, rotDelivered));
-        setModuleStates(swerveModuleStates);
+        if (fieldRelative) {
+            // Rotate the field relative speeds by the negative of the heading to get robot relative
+            // speeds. This is the same as ChassisSpeeds.fromFieldRelativeSpeeds(), without the garbage.
+            double cos = pose.getRotation().getCos();
+            double sin = pose.getRotation().getSin();
+            double fieldX = xSpeedDelivered;
+            xSpeedDelivered = fieldX * cos + ySpeedDelivered * sin;
+            ySpeedDelivered = -fieldX * sin + ySpeedDelivered * cos;
+        }
+        desiredStates.setFromChassisSpeeds(xSpeedDelivered, ySpeedDelivered, rotDelivered);
+        setModuleStates(desiredStates);
     }
 
     /**
@@ -73,11 +129,22 @@ public class DrivetrainSubsystem extends SubsystemBase {
      * backLeft, backRight].
      */
     public void setModuleStates(SwerveModuleState[] desiredStates) {
-        SwerveDriveKinematics.desaturateWheelSpeeds(desiredStates, DriveConstants.maxSpeed);
-        frontLeft.setDesiredState(desiredStates[0]);
-        frontRight.setDesiredState(desiredStates[1]);
-        backLeft.setDesiredState(desiredStates[2]);
-        backRight.setDesiredState(desiredStates[3]);
+        this.desiredStates.set(desiredStates);
+        setModuleStates(this.desiredStates);
+    }
+
+    /**
+     * Sets the state of each module without allocating. The states are desaturated in place.
+     * 
+     * @param desiredStates The module states in the order [frontLeft, frontRight, backLeft,
+     * backRight].
+     */
+    public void setModuleStates(SwerveModuleStateArray desiredStates) {
+        desiredStates.desaturate(DriveConstants.maxSpeed);
+        frontLeft.setDesiredState(desiredStates.getSpeed(0), desiredStates.getAngle(0));
+        frontRight.setDesiredState(desiredStates.getSpeed(1), desiredStates.getAngle(1));
+        backLeft.setDesiredState(desiredStates.getSpeed(2), desiredStates.getAngle(2));
+        backRight.setDesiredState(desiredStates.getSpeed(3), desiredStates.getAngle(3));
     }
 
     /**
@@ -88,22 +155,241 @@ public class DrivetrainSubsystem extends SubsystemBase {
         frontRight.syncAndResetEncoders();
         backLeft.syncAndResetEncoders();
         backRight.syncAndResetEncoders();
+        // Keep the odometry from seeing the reset as movement.
+        for (int i = 0; i < modules.length; i++) {
+            lastModulePositions[i] = 0;
+        }
+    }
+
+    /**
+     * Applies the same open-loop voltage to every driving motor with the wheels pointed forward. Used
+     * by the characterization routine.
+     * 
+     * @param volts The voltage to apply to the driving motors.
+     */
+    public void runDrivingCharacterization(double volts) {
+        frontLeft.setDrivingVoltage(volts);
+        frontRight.setDrivingVoltage(volts);
+        backLeft.setDrivingVoltage(volts);
+        backRight.setDrivingVoltage(volts);
+    }
+
+    /**
+     * Applies the same open-loop voltage to every turning motor. Used by the characterization
+     * routine.
+     * 
+     * @param volts The voltage to apply to the turning motors.
+     */
+    public void runTurningCharacterization(double volts) {
+        frontLeft.setTurningVoltage(volts);
+        frontRight.setTurningVoltage(volts);
+        backLeft.setTurningVoltage(volts);
+        backRight.setTurningVoltage(volts);
+    }
+
+    /**
+     * Changes how often every module reports its encoders. Used by the characterization routine.
+     * 
+     * @param periodMs The status period in milliseconds.
+     */
+    public void setSignalPeriod(int periodMs) {
+        for (SwerveModule module : modules) {
+            module.setSignalPeriod(periodMs);
+        }
+    }
+
+    /**
+     * @return The average voltage applied to the driving motors.
+     */
+    public double getAverageDrivingVoltage() {
+        return (frontLeft.getDrivingAppliedVoltage() + frontRight.getDrivingAppliedVoltage()
+                + backLeft.getDrivingAppliedVoltage() + backRight.getDrivingAppliedVoltage()) / 4;
+    }
+
+    /**
+     * @return The average distance travelled by the wheels in meters.
+     */
+    public double getAverageDrivingPosition() {
+        return (frontLeft.getDrivingPosition() + frontRight.getDrivingPosition()
+                + backLeft.getDrivingPosition() + backRight.getDrivingPosition()) / 4;
+    }
+
+    /**
+     * @return The average velocity of the wheels in meters per second.
+     */
+    public double getAverageDrivingVelocity() {
+        return (frontLeft.getDrivingVelocity() + frontRight.getDrivingVelocity()
+                + backLeft.getDrivingVelocity() + backRight.getDrivingVelocity()) / 4;
+    }
+
+    /**
+     * @return The average voltage applied to the turning motors.
+     */
+    public double getAverageTurningVoltage() {
+        return (frontLeft.getTurningAppliedVoltage() + frontRight.getTurningAppliedVoltage()
+                + backLeft.getTurningAppliedVoltage() + backRight.getTurningAppliedVoltage()) / 4;
+    }
+
+    /**
+     * @return The average angular velocity of the modules in radians per second.
+     */
+    public double getAverageTurningVelocity() {
+        return (frontLeft.getTurningVelocity() + frontRight.getTurningVelocity()
+                + backLeft.getTurningVelocity() + backRight.getTurningVelocity()) / 4;
     }
 
     /**
-     * Sets the yaw of the gyrometer to 0.
+     * Makes the direction the robot is facing the field's forward direction (away from the blue
+     * alliance wall). The position on the field is kept.
      */
     public void zeroHeading() {
-        gyro.reset();
+        pose.set(pose.getX(), pose.getY(), 0);
     }
 
     /**
-     * @return The heading of the robot as Rotation2d object. The output is continuous (i.e. 361º
-     * does not wrap around to 1º). If the gyro is reversed (see Constants.java), then the direction
-     * is reversed.
+     * @return The heading of the robot on the field as Rotation2d object, which is the rotation of
+     * {@link #getPose()}. The output is wrapped to [-180º, 180º). A new object is created whenever the
+     * heading changes; prefer {@link #getHeadingRadians()} in code that runs every loop.
      */
     public Rotation2d getHeading() {
+        return pose.getRotation().toRotation2d();
+    }
+
+    /**
+     * @return The heading of the robot on the field in radians, wrapped to [-pi, pi). This is the
+     * rotation of {@link #getPose()}.
+     */
+    public double getHeadingRadians() {
+        return pose.getRotation().getRadians();
+    }
+
+    /**
+     * @return The counterclockwise angular velocity of the robot in radians per second, measured over
+     * the last loop.
+     */
+    public double getAngularVelocity() {
+        return angularVelocity;
+    }
+
+    /**
+     * @return The yaw of the gyro in radians. This is continuous (it does not wrap), and is reversed if
+     * the gyro is reversed (see Constants.java).
+     */
+    private double readGyroRadians() {
+        if (RobotBase.isSimulation()) {
+            return simulatedHeadingRadians;
+        }
         double direction = DriveConstants.isGyroReversed ? -1 : 1;
-        return Rotation2d.fromDegrees(direction * gyro.getAngle());
+        return Math.toRadians(direction * gyro.getAngle());
+    }
+
+    /**
+     * @return A copy of the estimated pose of the robot on the field. A new object is created whenever
+     * the pose changes; prefer {@link #getMutablePose()} in code that runs every loop.
+     */
+    public Pose2d getPose() {
+        return pose.toPose2d();
+    }
+
+    /**
+     * @return The estimated pose of the robot on the field. This is owned by the drivetrain and
+     * updated in place every loop, so it must not be modified.
+     */
+    public MutablePose2d getMutablePose() {
+        return pose;
+    }
+
+    /**
+     * Resets the odometry to a known pose, such as the starting pose at the start of auto. This also
+     * sets the robot's heading on the field.
+     * 
+     * @param newPose The new pose of the robot on the field.
+     */
+    public void resetPose(Pose2d newPose) {
+        pose.set(newPose);
+        poseSeeded = true;
+    }
+
+    /**
+     * @return Whether the pose has been reset to a known place on the field since the robot turned on.
+     * Until then, the odometry starts from wherever the robot was turned on, so the pose cannot be used
+     * to drive to places on the field.
+     */
+    public boolean isPoseSeeded() {
+        return poseSeeded;
+    }
+
+    /**
+     * Puts the simulated drivetrain back at rest: the wheels are stopped and their encoders zeroed, the
+     * simulated gyro is zeroed, and the odometry is reset to a pose. Used by the headless match
+     * simulator between matches. Only called in simulation.
+     * 
+     * @param newPose The new pose of the robot on the field.
+     */
+    public void resetSimulation(Pose2d newPose) {
+        for (SwerveModule module : modules) {
+            module.resetSimulation();
+        }
+        resetEncoders();
+        simulatedHeadingRadians = 0;
+        lastGyroRadians = 0;
+        angularVelocity = 0;
+        lastOdometryTimestamp = Timer.getFPGATimestamp();
+        lastSimulationTimestamp = lastOdometryTimestamp;
+        resetPose(newPose);
+    }
+
+    @Override
+    public void periodic() {
+        updateOdometry();
+        if (tunedConfigsChanged) {
+            tunedConfigsChanged = false;
+            for (SwerveModule module : modules) {
+                module.applyTunedConfigs();
+            }
+        }
+    }
+
+    /**
+     * Integrates the distance travelled by each module since the last loop into the pose. The change
+     * in heading comes from the gyro, which is more accurate than the wheels.
+     */
+    private void updateOdometry() {
+        double dx = 0;
+        double dy = 0;
+        for (int i = 0; i < modules.length; i++) {
+            double position = modules[i].getDrivingPosition();
+            double distance = position - lastModulePositions[i];
+            double angle = modules[i].getAngleRadians();
+            dx += distance * Math.cos(angle);
+            dy += distance * Math.sin(angle);
+            lastModulePositions[i] = position;
+        }
+        double gyroRadians = readGyroRadians();
+        double dtheta = MathUtil.angleModulus(gyroRadians - lastGyroRadians);
+        lastGyroRadians = gyroRadians;
+        // Loops do not always take exactly one period, so divide by the time that actually passed.
+        double timestamp = Timer.getFPGATimestamp();
+        double dt = timestamp - lastOdometryTimestamp;
+        lastOdometryTimestamp = timestamp;
+        if (dt > 0) {
+            angularVelocity = dtheta / dt;
+        }
+        pose.exp(dx / modules.length, dy / modules.length, dtheta);
+    }
+
+    @Override
+    public void simulationPeriodic() {
+        double timestamp = Timer.getFPGATimestamp();
+        double dt = timestamp - lastSimulationTimestamp;
+        lastSimulationTimestamp = timestamp;
+        for (int i = 0; i < modules.length; i++) {
+            modules[i].simulationPeriodic(dt);
+            measuredStates.set(i, modules[i].getDrivingVelocity(), modules[i].getAngleRadians());
+        }
+        // There is no simulated gyro, so integrate the angular velocity of the modules instead.
+        measuredStates.toChassisSpeeds(measuredSpeeds);
+        simulatedHeadingRadians = MathUtil.angleModulus(
+                simulatedHeadingRadians + measuredSpeeds.omegaRadiansPerSecond * dt);
     }
 }
@@ -0,0 +1,117 @@
+package frc.robot.subsystems.drivetrain;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import frc.robot.Constants.AutoConstants;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Tunables;
+
+/**
+ * Decides the rotation of the robot in teleop. While the driver turns the robot, their input is
+ * passed straight through. Once they let go of the rotation stick, the robot is left to stop turning,
+ * and then the heading it settled at is held so the robot does not drift while translating. A snap
+ * turns the robot to a given heading with a motion profile, and is cancelled as soon as the driver
+ * turns the robot themselves. Headings are on the field (see
+ * {@link DrivetrainSubsystem#getHeadingRadians()}).
+ */
+public class HeadingController {
+    private final ProfiledPIDController controller = createThetaController();
+
+    /** Whether or not the controller is holding or snapping to a heading. */
+    private boolean active = false;
+    /** Whether or not the profile needs to restart from the robot's current motion on the next update. */
+    private boolean needsReset = false;
+    private double targetRadians = 0;
+
+    /**
+     * Creates a heading controller whose P gain follows the tunable theta gain. There is one for the
+     * whole robot, so the listener it registers lives as long as the robot code.
+     */
+    public HeadingController() {
+        Tunables.thetaKp.onChange(controller::setP);
+    }
+
+    /**
+     * Creates a profiled controller for the robot's heading, in radians, with the output in radians
+     * per second, using the current tunable theta gain (see Tunables.java). Everything that turns
+     * the robot to a heading uses one of these, so they all tune together. To follow changes to the
+     * gain while running, register {@code controller::setP} with {@code Tunables.thetaKp.onChange()},
+     * and remove it again when done.
+     * 
+     * @return The new controller.
+     */
+    public static ProfiledPIDController createThetaController() {
+        ProfiledPIDController controller = new ProfiledPIDController(
+                Tunables.thetaKp.get(), 0, 0, AutoConstants.thetaControllerConstraints);
+        controller.enableContinuousInput(-Math.PI, Math.PI);
+        return controller;
+    }
+
+    /**
+     * Snaps the robot to a heading. The driver can cancel the snap by turning the robot.
+     * 
+     * @param headingRadians The heading to snap to, in radians.
+     */
+    public void snapTo(double headingRadians) {
+        targetRadians = MathUtil.angleModulus(headingRadians);
+        active = true;
+        needsReset = true;
+    }
+
+    /** Stops holding the heading. The next time the rotation stick is released, a new heading is held. */
+    public void reset() {
+        active = false;
+    }
+
+    /**
+     * Calculates the rotation to drive with.
+     * 
+     * @param rot The driver's rotation on a [-1.0, 1.0] scale, zero if the stick is released.
+     * @param headingRadians The heading of the robot on the field in radians.
+     * @param angularVelocity The measured angular velocity of the robot in radians per second.
+     * @return The rotation to drive with on a [-1.0, 1.0] scale.
+     */
+    public double calculate(double rot, double headingRadians, double angularVelocity) {
+        if (rot != 0) {
+            // The driver is turning, so forget any held heading or snap.
+            active = false;
+            return rot;
+        }
+        if (!active) {
+            if (Math.abs(angularVelocity) > DriveConstants.headingHoldSettleSpeed) {
+                // The stick was just released. Holding the heading from this moment would make the
+                // robot overshoot and swing back, so wait for it to stop turning first.
+                return 0;
+            }
+            targetRadians = headingRadians;
+            active = true;
+            needsReset = true;
+        }
+        if (needsReset) {
+            // Start the profile from how the robot is actually moving, not from rest.
+            controller.reset(headingRadians, angularVelocity);
+            needsReset = false;
+        }
+        // Follow the profile's velocity, and correct the error from the profiled position.
+        double omega = controller.calculate(headingRadians, targetRadians) + controller.getSetpoint().velocity;
+        if (Math.abs(MathUtil.angleModulus(targetRadians - headingRadians)) < DriveConstants.headingDeadband) {
+            // Close enough. Tiny corrections would only make the modules jitter into the rotation pose.
+            return 0;
+        }
+        return MathUtil.clamp(omega / DriveConstants.maxAngularSpeed, -1, 1);
+    }
+
+    /**
+     * @return The heading being held or snapped to in radians. Only meaningful while active.
+     */
+    public double getTargetRadians() {
+        return targetRadians;
+    }
+
+    /**
+     * @return Whether or not the controller is holding or snapping to a heading.
+     */
+    public boolean isActive() {
+        return active;
+    }
+}
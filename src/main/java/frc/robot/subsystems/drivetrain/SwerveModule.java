@@ -8,11 +8,18 @@ import com.revrobotics.spark.SparkBase.ControlType;
 import com.revrobotics.spark.SparkClosedLoopController;
 import com.revrobotics.spark.SparkMax;
 import com.revrobotics.spark.SparkLowLevel.MotorType;
+import com.revrobotics.sim.SparkMaxSim;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
 import frc.robot.Configs.SwerveConfig;
+import frc.robot.Constants.SwerveModuleConstants;
+import frc.robot.math.MutableRotation2d;
 
 /**
  * Class for encapsulating the behavior of a single swerve module. When looking at the swerve module
@@ -31,10 +38,20 @@ public class SwerveModule {
     private final SparkClosedLoopController drivingClosedLoopController;
     private final SparkClosedLoopController turningClosedLoopController;
 
+    /* Simulated motor controllers, which are null on the real robot. */
+    private final SparkMaxSim drivingSim;
+    private final SparkMaxSim turningSim;
+
     /** The angular offset of the wheel relative to the absolute encoder. */
     private double angularOffset = 0;
     // Initializes the swerve module with a speed of zero meters per second.
-    private SwerveModuleState desiredState = new SwerveModuleState(0.0, new Rotation2d());
+    private double desiredSpeed = 0;
+    private final MutableRotation2d desiredAngle = new MutableRotation2d();
+    /** Reused when converting WPILib module states. */
+    private final MutableRotation2d scratchAngle = new MutableRotation2d();
+    /* What the simulated module is actually doing, which lags behind the setpoint. */
+    private double simulatedSpeed = 0;
+    private double simulatedAngle = 0;
 
     /**
      * Constructor for swerve module. The driving and turning motors are intialized and configured
@@ -57,9 +74,18 @@ public class SwerveModule {
         turningClosedLoopController = turningMotor.getClosedLoopController();
         turningMotor.configure(SwerveConfig.turningConfig, ResetMode.kResetSafeParameters,
                 PersistMode.kPersistParameters);
+        /* Simulation */
+        if (RobotBase.isSimulation()) {
+            drivingSim = new SparkMaxSim(drivingMotor, DCMotor.getNEO(1));
+            turningSim = new SparkMaxSim(turningMotor, DCMotor.getNeo550(1));
+        } else {
+            drivingSim = null;
+            turningSim = null;
+        }
         /* Other */
         this.angularOffset = angularOffset;
-        desiredState.angle = new Rotation2d(turningEncoder.getPosition());
+        desiredAngle.setRadians(turningEncoder.getPosition());
+        simulatedAngle = desiredAngle.getRadians();
         syncAndResetEncoders();
     }
 
@@ -91,19 +117,166 @@ public class SwerveModule {
      * @param desiredState
      */
     public void setDesiredState(SwerveModuleState desiredState) {
+        scratchAngle.set(desiredState.angle);
+        setDesiredState(desiredState.speedMetersPerSecond, scratchAngle);
+    }
+
+    /**
+     * Sets the desired state of the module without allocating. The turning is (should be) optimized
+     * to take the shortest path.
+     * 
+     * @param speedMetersPerSecond The desired speed of the wheel.
+     * @param angle The desired angle of the module relative to the chassis. This is not modified.
+     */
+    public void setDesiredState(double speedMetersPerSecond, MutableRotation2d angle) {
         // Apply chassis angular offset to the desired state.
-        SwerveModuleState correctedDesiredState = new SwerveModuleState();
-        correctedDesiredState.speedMetersPerSecond = desiredState.speedMetersPerSecond;
-        correctedDesiredState.angle = desiredState.angle.plus(Rotation2d.fromRadians(angularOffset));
+        double correctedAngle = angle.getRadians() + angularOffset;
 
         // Optimize the reference state to avoid spinning further than 90 degrees.
-        correctedDesiredState.optimize(new Rotation2d(turningEncoder.getPosition()));
+        if (shouldReverse(correctedAngle, turningEncoder.getPosition())) {
+            speedMetersPerSecond = -speedMetersPerSecond;
+            correctedAngle += Math.PI;
+        }
 
         // Command driving and turning SPARKS towards their respective setpoints.
-        drivingClosedLoopController.setSetpoint(correctedDesiredState.speedMetersPerSecond, ControlType.kVelocity);
-        turningClosedLoopController.setSetpoint(correctedDesiredState.angle.getRadians(), ControlType.kPosition);
+        drivingClosedLoopController.setSetpoint(speedMetersPerSecond, ControlType.kVelocity);
+        turningClosedLoopController.setSetpoint(MathUtil.angleModulus(correctedAngle), ControlType.kPosition);
+
+        desiredSpeed = speedMetersPerSecond;
+        desiredAngle.setRadians(correctedAngle);
+    }
+
+    /**
+     * Decides whether a module should turn to the opposite angle and drive the wheel backwards
+     * instead, so it never turns further than 90 degrees. This matches SwerveModuleState.optimize().
+     * 
+     * @param desiredRadians The desired angle of the module.
+     * @param currentRadians The current angle of the module.
+     * @return Whether or not to reverse the wheel and add pi to the desired angle.
+     */
+    static boolean shouldReverse(double desiredRadians, double currentRadians) {
+        return Math.abs(MathUtil.angleModulus(desiredRadians - currentRadians)) > Math.PI / 2;
+    }
+
+    /**
+     * Applies a raw voltage to the driving motor while holding the wheel pointed forward. Used by
+     * the drivetrain characterization routine, which needs open-loop control of the motor.
+     * 
+     * @param volts The voltage to apply to the driving motor.
+     */
+    public void setDrivingVoltage(double volts) {
+        turningClosedLoopController.setSetpoint(angularOffset, ControlType.kPosition);
+        drivingMotor.setVoltage(volts);
+    }
 
-        this.desiredState = correctedDesiredState;
+    /**
+     * Applies a raw voltage to the turning motor while the driving motor is held at zero volts. Used
+     * by the drivetrain characterization routine.
+     * 
+     * @param volts The voltage to apply to the turning motor.
+     */
+    public void setTurningVoltage(double volts) {
+        drivingMotor.setVoltage(0);
+        turningMotor.setVoltage(volts);
+    }
+
+    /**
+     * @return The voltage currently applied to the driving motor.
+     */
+    public double getDrivingAppliedVoltage() {
+        return drivingMotor.getAppliedOutput() * drivingMotor.getBusVoltage();
+    }
+
+    /**
+     * @return The voltage currently applied to the turning motor.
+     */
+    public double getTurningAppliedVoltage() {
+        return turningMotor.getAppliedOutput() * turningMotor.getBusVoltage();
+    }
+
+    /**
+     * @return The distance travelled by the wheel in meters.
+     */
+    public double getDrivingPosition() {
+        return drivingEncoder.getPosition();
+    }
+
+    /**
+     * @return The velocity of the wheel in meters per second.
+     */
+    public double getDrivingVelocity() {
+        return drivingEncoder.getVelocity();
+    }
+
+    /**
+     * @return The angular velocity of the module in radians per second.
+     */
+    public double getTurningVelocity() {
+        return turningEncoder.getVelocity();
+    }
+
+    /**
+     * @return The angle of the module relative to the chassis in radians.
+     */
+    public double getAngleRadians() {
+        return turningEncoder.getPosition() - angularOffset;
+    }
+
+    /**
+     * Moves the simulated encoders towards the setpoint with a first order lag (see
+     * {@link SwerveModuleConstants#simulatedDrivingTimeConstant}), so the module takes time to speed up
+     * and turn like a real one. Wheel slip and friction are not simulated. Only called in simulation.
+     * 
+     * @param dtSeconds The time since the last update in seconds.
+     */
+    public void simulationPeriodic(double dtSeconds) {
+        simulatedSpeed += (desiredSpeed - simulatedSpeed)
+                * (1 - Math.exp(-dtSeconds / SwerveModuleConstants.simulatedDrivingTimeConstant));
+        simulatedAngle += MathUtil.angleModulus(desiredAngle.getRadians() - simulatedAngle)
+                * (1 - Math.exp(-dtSeconds / SwerveModuleConstants.simulatedTurningTimeConstant));
+        drivingSim.iterate(simulatedSpeed, RobotController.getBatteryVoltage(), dtSeconds);
+        turningSim.getAbsoluteEncoderSim().setPosition(MathUtil.inputModulus(simulatedAngle, 0, 2 * Math.PI));
+    }
+
+    /** Stops the simulated wheel straight away. Only called in simulation. */
+    public void resetSimulation() {
+        desiredSpeed = 0;
+        simulatedSpeed = 0;
+        drivingSim.setVelocity(0);
+    }
+
+    /**
+     * Changes the angular offset of the module, such as when it is tuned from the dashboard.
+     * 
+     * @param angularOffset The new angular offset in radians.
+     */
+    public void setAngularOffset(double angularOffset) {
+        this.angularOffset = angularOffset;
+    }
+
+    /**
+     * Pushes the tunable gains and limits (see Tunables.java) to the SPARK MAXes. This does not wait
+     * for the SPARK MAXes to respond, so it is safe to call from the main loop. The changes are not
+     * persisted, so a reboot goes back to the values the robot started with.
+     */
+    public void applyTunedConfigs() {
+        drivingMotor.configureAsync(SwerveConfig.drivingTuningConfig(), ResetMode.kNoResetSafeParameters,
+                PersistMode.kNoPersistParameters);
+        turningMotor.configureAsync(SwerveConfig.turningTuningConfig(), ResetMode.kNoResetSafeParameters,
+                PersistMode.kNoPersistParameters);
+    }
+
+    /**
+     * Changes how often the SPARK MAXes report the encoders. Like {@link #applyTunedConfigs()}, this
+     * does not wait for them to respond and is not persisted.
+     * 
+     * @param periodMs The status period in milliseconds.
+     */
+    public void setSignalPeriod(int periodMs) {
+        drivingMotor.configureAsync(SwerveConfig.drivingSignalsConfig(periodMs), ResetMode.kNoResetSafeParameters,
+                PersistMode.kNoPersistParameters);
+        turningMotor.configureAsync(SwerveConfig.turningSignalsConfig(periodMs), ResetMode.kNoResetSafeParameters,
+                PersistMode.kNoPersistParameters);
     }
 
     /** Syncs and zeroes all the SwerveModule encoders. */
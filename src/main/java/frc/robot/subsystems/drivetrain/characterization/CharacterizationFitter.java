@@ -0,0 +1,279 @@
+package frc.robot.subsystems.drivetrain.characterization;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Desktop tool that fits feed forward and feedback gains to a log written by
+ * {@link DriveCharacterization}. Copy the log off the roboRIO and run
+ * {@code ./gradlew fitCharacterization -Plog=path/to/drivetrain.csv}.
+ *
+ * <p>The feed forward model V = kS * sgn(v) + kV * v + kA * a is fitted with ordinary least squares.
+ * The suggested feedback gains come from a discrete LQR on the fitted plant, with the latency of the
+ * SPARK MAX velocity measurement compensated for, in the same way as WPILib's SysId tool. This class
+ * only uses the standard library so it runs without the WPILib native libraries.
+ */
+public final class CharacterizationFitter {
+    /** Samples slower than this (meters or radians per second) are dropped, since kS dominates them. */
+    private static final double minVelocity = 0.02;
+    /* The constants below are package-private so the tests can check the gains against WPILib. */
+    /** Period of the SPARK MAX onboard control loop in seconds. */
+    static final double sparkLoopPeriod = 0.001;
+    /** Approximate delay of the filtered SPARK MAX velocity measurement in seconds. */
+    static final double sparkVelocityDelay = 0.032;
+    /* LQR tolerances. Larger tolerances give smaller gains. */
+    static final double maxControlEffortVolts = 7.0;
+    static final double maxDrivingVelocityError = 1.0;
+    static final double maxTurningPositionError = 0.05;
+    static final double maxTurningVelocityError = 1.0;
+    /** The SPARK MAX PID output is a duty cycle, so gains in volts are divided by this. */
+    private static final double nominalVoltage = 12.0;
+
+    private CharacterizationFitter() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    public static void main(String... args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : "drivetrain.csv");
+        List<double[]> rows = readCsv(file);
+
+        double[] driving = fitFeedForward(rows, DriveCharacterization.Mechanism.DRIVING.ordinal());
+        System.out.println("Driving (meters):");
+        printFeedForward(driving);
+        if (driving != null && driving[2] > 0) {
+            double kP = velocityGain(driving[1], driving[2]);
+            System.out.printf("  kP = %.5f V/(m/s), SPARK MAX kP = %.5f%n", kP, kP / nominalVoltage);
+        }
+
+        double[] turning = fitFeedForward(rows, DriveCharacterization.Mechanism.TURNING.ordinal());
+        System.out.println("Turning (radians):");
+        printFeedForward(turning);
+        if (turning != null && turning[2] > 0) {
+            double[] gains = positionGains(turning[1], turning[2]);
+            System.out.printf("  kP = %.5f V/rad, SPARK MAX kP = %.5f%n", gains[0], gains[0] / nominalVoltage);
+            System.out.printf("  kD = %.5f V/(rad/s), SPARK MAX kD = %.5f%n", gains[1],
+                    gains[1] / nominalVoltage / sparkLoopPeriod);
+        }
+    }
+
+    private static void printFeedForward(double[] gains) {
+        if (gains == null) {
+            System.out.println("  Not enough samples to fit.");
+            return;
+        }
+        System.out.printf("  kS = %.5f V%n  kV = %.5f V/(unit/s)%n  kA = %.5f V/(unit/s^2)%n  r^2 = %.4f%n",
+                gains[0], gains[1], gains[2], gains[3]);
+        if (gains[2] <= 0) {
+            System.out.println("  kA is not positive, so no feedback gains can be suggested. Rerun the routine.");
+        }
+    }
+
+    /**
+     * Reads the log into rows of [mechanism, test, timestamp, voltage, position, velocity].
+     */
+    private static List<double[]> readCsv(Path file) throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line = reader.readLine(); // Skip the header.
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                double[] row = new double[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    row[i] = Double.parseDouble(fields[i].trim());
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Fits V = kS * sgn(v) + kV * v + kA * a to the samples of one mechanism. The acceleration is
+     * estimated with a central difference between neighbouring samples of the same test.
+     * 
+     * @return [kS, kV, kA, r^2], or null if there are not enough samples.
+     */
+    static double[] fitFeedForward(List<double[]> rows, int mechanism) {
+        // Normal equations (X^T X) b = X^T y, accumulated without storing the design matrix.
+        double[][] xtx = new double[3][3];
+        double[] xty = new double[3];
+        double sumY = 0;
+        double sumYSquared = 0;
+        int count = 0;
+
+        for (int i = 1; i < rows.size() - 1; i++) {
+            double[] previous = rows.get(i - 1);
+            double[] current = rows.get(i);
+            double[] next = rows.get(i + 1);
+            if (current[0] != mechanism || previous[0] != mechanism || next[0] != mechanism
+                    || previous[1] != current[1] || next[1] != current[1]) {
+                continue;
+            }
+            double dt = next[2] - previous[2];
+            double velocity = current[5];
+            if (dt <= 0 || Math.abs(velocity) < minVelocity) {
+                continue;
+            }
+            double acceleration = (next[5] - previous[5]) / dt;
+            double[] x = { Math.signum(velocity), velocity, acceleration };
+            double y = current[3];
+            for (int r = 0; r < 3; r++) {
+                for (int c = 0; c < 3; c++) {
+                    xtx[r][c] += x[r] * x[c];
+                }
+                xty[r] += x[r] * y;
+            }
+            sumY += y;
+            sumYSquared += y * y;
+            count++;
+        }
+        if (count < 3) {
+            return null;
+        }
+
+        double[] b = solve(xtx, xty);
+        if (b == null) {
+            return null;
+        }
+        // Residual sum of squares from the normal equations: y^T y - 2 b^T X^T y + b^T X^T X b.
+        double residual = sumYSquared;
+        for (int r = 0; r < 3; r++) {
+            residual -= 2 * b[r] * xty[r];
+            for (int c = 0; c < 3; c++) {
+                residual += b[r] * xtx[r][c] * b[c];
+            }
+        }
+        double total = sumYSquared - sumY * sumY / count;
+        double rSquared = total > 0 ? 1 - residual / total : 0;
+        return new double[] { b[0], b[1], b[2], rSquared };
+    }
+
+    /**
+     * Solves a 3x3 linear system with Gaussian elimination and partial pivoting.
+     * 
+     * @return The solution, or null if the system is singular.
+     */
+    private static double[] solve(double[][] a, double[] b) {
+        int n = b.length;
+        double[][] m = new double[n][n + 1];
+        for (int r = 0; r < n; r++) {
+            System.arraycopy(a[r], 0, m[r], 0, n);
+            m[r][n] = b[r];
+        }
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int r = col + 1; r < n; r++) {
+                if (Math.abs(m[r][col]) > Math.abs(m[pivot][col])) {
+                    pivot = r;
+                }
+            }
+            if (Math.abs(m[pivot][col]) < 1e-12) {
+                return null;
+            }
+            double[] swap = m[col];
+            m[col] = m[pivot];
+            m[pivot] = swap;
+            for (int r = col + 1; r < n; r++) {
+                double factor = m[r][col] / m[col][col];
+                for (int c = col; c <= n; c++) {
+                    m[r][c] -= factor * m[col][c];
+                }
+            }
+        }
+        double[] x = new double[n];
+        for (int r = n - 1; r >= 0; r--) {
+            double sum = m[r][n];
+            for (int c = r + 1; c < n; c++) {
+                sum -= m[r][c] * x[c];
+            }
+            x[r] = sum / m[r][r];
+        }
+        return x;
+    }
+
+    /**
+     * LQR gain for the velocity plant dv/dt = -kV/kA * v + 1/kA * u, discretized at the SPARK MAX loop
+     * period and compensated for the velocity measurement delay.
+     * 
+     * @return The proportional gain in volts per (unit / s).
+     */
+    static double velocityGain(double kV, double kA) {
+        double a = Math.exp(-kV / kA * sparkLoopPeriod);
+        double b = (1 - a) / kV;
+        double q = 1 / (maxDrivingVelocityError * maxDrivingVelocityError);
+        double r = 1 / (maxControlEffortVolts * maxControlEffortVolts);
+
+        // Iterate the scalar discrete algebraic Riccati equation until it converges.
+        double p = q;
+        for (int i = 0; i < 100000; i++) {
+            double next = q + a * a * p - (a * b * p) * (a * b * p) / (r + b * b * p);
+            if (Math.abs(next - p) < 1e-12 * Math.max(1, p)) {
+                p = next;
+                break;
+            }
+            p = next;
+        }
+        double k = a * b * p / (r + b * b * p);
+        // The controller acts on a measurement that is delay seconds old, so project it forward
+        // through the closed loop dynamics: K * (A - BK)^(delay / dt).
+        return k * Math.pow(a - b * k, sparkVelocityDelay / sparkLoopPeriod);
+    }
+
+    /**
+     * LQR gains for the position plant with state [position, velocity], discretized at the SPARK MAX
+     * loop period. The absolute encoder position is not filtered, so no delay compensation is applied.
+     * 
+     * @return [kP, kD] in volts per unit and volts per (unit / s).
+     */
+    static double[] positionGains(double kV, double kA) {
+        double dt = sparkLoopPeriod;
+        double alpha = -kV / kA;
+        double e = Math.exp(alpha * dt);
+        // Exact zero order hold discretization of A = [[0, 1], [0, alpha]], B = [0, 1 / kA].
+        double a00 = 1, a01 = (e - 1) / alpha, a10 = 0, a11 = e;
+        double b0 = ((e - 1) / alpha - dt) / alpha / kA;
+        double b1 = (e - 1) / alpha / kA;
+        double q00 = 1 / (maxTurningPositionError * maxTurningPositionError);
+        double q11 = 1 / (maxTurningVelocityError * maxTurningVelocityError);
+        double r = 1 / (maxControlEffortVolts * maxControlEffortVolts);
+
+        // P is symmetric, so only p00, p01 and p11 are tracked.
+        double p00 = q00, p01 = 0, p11 = q11;
+        for (int i = 0; i < 1000000; i++) {
+            // A^T P A
+            double pa00 = p00 * a00 + p01 * a10, pa01 = p00 * a01 + p01 * a11;
+            double pa10 = p01 * a00 + p11 * a10, pa11 = p01 * a01 + p11 * a11;
+            double apa00 = a00 * pa00 + a10 * pa10;
+            double apa01 = a00 * pa01 + a10 * pa11;
+            double apa11 = a01 * pa01 + a11 * pa11;
+            // B^T P A (1x2) and B^T P B (scalar)
+            double bpa0 = b0 * pa00 + b1 * pa10, bpa1 = b0 * pa01 + b1 * pa11;
+            double bpb = b0 * (p00 * b0 + p01 * b1) + b1 * (p01 * b0 + p11 * b1);
+            double s = r + bpb;
+            double n00 = q00 + apa00 - bpa0 * bpa0 / s;
+            double n01 = apa01 - bpa0 * bpa1 / s;
+            double n11 = q11 + apa11 - bpa1 * bpa1 / s;
+            boolean converged = Math.abs(n00 - p00) < 1e-10 * Math.max(1, Math.abs(p00))
+                    && Math.abs(n01 - p01) < 1e-10 * Math.max(1, Math.abs(p01))
+                    && Math.abs(n11 - p11) < 1e-10 * Math.max(1, Math.abs(p11));
+            p00 = n00;
+            p01 = n01;
+            p11 = n11;
+            if (converged) {
+                break;
+            }
+        }
+        double pa00 = p00 * a00 + p01 * a10, pa01 = p00 * a01 + p01 * a11;
+        double pa10 = p01 * a00 + p11 * a10, pa11 = p01 * a01 + p11 * a11;
+        double bpb = b0 * (p00 * b0 + p01 * b1) + b1 * (p01 * b0 + p11 * b1);
+        double s = r + bpb;
+        return new double[] { (b0 * pa00 + b1 * pa10) / s, (b0 * pa01 + b1 * pa11) / s };
+    }
+}
@@ -0,0 +1,102 @@
+package frc.robot.subsystems.drivetrain.characterization;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Fixed size log for characterization samples. All of the storage is allocated up front so that
+ * recording a sample never allocates while the routine is running. Once the log is full, further
+ * samples are dropped.
+ */
+public class CharacterizationLog {
+    /** Header of the CSV file written by {@link #writeCsv(Path)} and read by the fitter. */
+    public static final String csvHeader = "mechanism,test,timestamp,voltage,position,velocity";
+
+    private final int[] mechanisms;
+    private final int[] tests;
+    private final double[] timestamps;
+    private final double[] voltages;
+    private final double[] positions;
+    private final double[] velocities;
+    private int size = 0;
+
+    /**
+     * @param capacity The maximum number of samples the log can hold.
+     */
+    public CharacterizationLog(int capacity) {
+        mechanisms = new int[capacity];
+        tests = new int[capacity];
+        timestamps = new double[capacity];
+        voltages = new double[capacity];
+        positions = new double[capacity];
+        velocities = new double[capacity];
+    }
+
+    /**
+     * Records a single sample. Does nothing if the log is full.
+     * 
+     * @param mechanism The index of the mechanism being characterized.
+     * @param test The index of the test being run.
+     * @param timestamp The time of the sample in seconds.
+     * @param voltage The applied voltage in volts.
+     * @param position The position of the mechanism (meters or radians).
+     * @param velocity The velocity of the mechanism (meters or radians per second).
+     */
+    public void record(int mechanism, int test, double timestamp, double voltage, double position,
+            double velocity) {
+        if (size == timestamps.length) {
+            return;
+        }
+        mechanisms[size] = mechanism;
+        tests[size] = test;
+        timestamps[size] = timestamp;
+        voltages[size] = voltage;
+        positions[size] = position;
+        velocities[size] = velocity;
+        size++;
+    }
+
+    /** Discards every recorded sample. The storage is kept for reuse. */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return The number of recorded samples.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Whether or not the log has run out of space.
+     */
+    public boolean isFull() {
+        return size == timestamps.length;
+    }
+
+    /**
+     * Writes every recorded sample to a CSV file, replacing the file if it already exists. This
+     * should only be called once the routine is done, since it blocks on the file system.
+     * 
+     * @param file The file to write.
+     * @throws IOException If the file could not be written.
+     */
+    public void writeCsv(Path file) throws IOException {
+        Path parent = file.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(csvHeader);
+            writer.newLine();
+            for (int i = 0; i < size; i++) {
+                writer.write(mechanisms[i] + "," + tests[i] + "," + timestamps[i] + "," + voltages[i] + ","
+                        + positions[i] + "," + velocities[i]);
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package frc.robot.subsystems.drivetrain.characterization;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.robot.Constants.CharacterizationConstants;
+import frc.robot.subsystems.drivetrain.DrivetrainSubsystem;
+
+/**
+ * Runs SysId-style quasistatic and dynamic voltage tests on the driving and turning motors. The
+ * voltage is applied and the drivetrain is sampled by {@link #sample()}, which should be registered
+ * with {@code TimedRobot.addPeriodic} so it runs faster than the main loop. The samples are written
+ * to a CSV file on the roboRIO when the routine ends, which can then be copied to a computer and
+ * fitted with {@link CharacterizationFitter}.
+ */
+public class DriveCharacterization {
+    /** The mechanisms that can be characterized. The ordinal is written to the log. */
+    public enum Mechanism {
+        DRIVING,
+        TURNING
+    }
+
+    /** The tests that are run on each mechanism. The ordinal is written to the log. */
+    public enum Test {
+        QUASISTATIC_FORWARD(true, 1),
+        QUASISTATIC_REVERSE(true, -1),
+        DYNAMIC_FORWARD(false, 1),
+        DYNAMIC_REVERSE(false, -1);
+
+        /** Quasistatic tests slowly ramp the voltage, dynamic tests apply a voltage step. */
+        private final boolean quasistatic;
+        private final double direction;
+
+        Test(boolean quasistatic, double direction) {
+            this.quasistatic = quasistatic;
+            this.direction = direction;
+        }
+    }
+
+    /** Where the log is written on the roboRIO (/home/lvuser/characterization). */
+    public static final Path logFile = Filesystem.getOperatingDirectory().toPath()
+            .resolve("characterization").resolve("drivetrain.csv");
+
+    private final DrivetrainSubsystem drivetrain;
+    private final CharacterizationLog log = new CharacterizationLog(CharacterizationConstants.logCapacity);
+
+    /* State of the running test. activeTest is null when no test is running. */
+    private Mechanism activeMechanism = Mechanism.DRIVING;
+    private Test activeTest = null;
+    private double testStartTime = 0;
+    private double testStartPosition = 0;
+    private boolean testFinished = false;
+
+    public DriveCharacterization(DrivetrainSubsystem drivetrain) {
+        this.drivetrain = drivetrain;
+    }
+
+    /**
+     * @return A command that runs every test on the driving motors, then on the turning motors, and
+     * writes the log once it ends (even if interrupted). The robot will drive forwards and backwards
+     * up to {@link CharacterizationConstants#maxDrivingDistanceMeters}, so make sure there is room.
+     * The encoders are reported faster while it runs.
+     */
+    public Command routine() {
+        return Commands.sequence(
+                Commands.runOnce(() -> {
+                    log.clear();
+                    drivetrain.setSignalPeriod(CharacterizationConstants.signalPeriodMs);
+                }),
+                mechanismRoutine(Mechanism.DRIVING),
+                mechanismRoutine(Mechanism.TURNING))
+                .finallyDo(interrupted -> {
+                    stop();
+                    drivetrain.setSignalPeriod(CharacterizationConstants.normalSignalPeriodMs);
+                    writeLog();
+                });
+    }
+
+    private Command mechanismRoutine(Mechanism mechanism) {
+        Test[] tests = Test.values();
+        Command[] steps = new Command[tests.length * 2];
+        for (int i = 0; i < tests.length; i++) {
+            steps[2 * i] = test(mechanism, tests[i]);
+            // Let the mechanism coast to a stop before the next test.
+            steps[2 * i + 1] = Commands.waitSeconds(CharacterizationConstants.restSeconds);
+        }
+        return Commands.sequence(steps);
+    }
+
+    private Command test(Mechanism mechanism, Test test) {
+        return Commands.startEnd(() -> start(mechanism, test), this::stop, drivetrain)
+                .until(() -> testFinished);
+    }
+
+    private void start(Mechanism mechanism, Test test) {
+        activeMechanism = mechanism;
+        testStartTime = Timer.getFPGATimestamp();
+        testStartPosition = drivetrain.getAverageDrivingPosition();
+        testFinished = false;
+        activeTest = test;
+    }
+
+    private void stop() {
+        activeTest = null;
+        drivetrain.runDrivingCharacterization(0);
+        drivetrain.runTurningCharacterization(0);
+    }
+
+    /**
+     * Records a sample of the running test and updates the applied voltage. Does nothing when no test
+     * is running. This never allocates, so it is safe to call at a high rate.
+     */
+    public void sample() {
+        if (activeTest == null || testFinished) {
+            return;
+        }
+        double timestamp = Timer.getFPGATimestamp();
+        double elapsed = timestamp - testStartTime;
+
+        double position;
+        if (activeMechanism == Mechanism.DRIVING) {
+            position = drivetrain.getAverageDrivingPosition();
+            log.record(activeMechanism.ordinal(), activeTest.ordinal(), timestamp,
+                    drivetrain.getAverageDrivingVoltage(), position, drivetrain.getAverageDrivingVelocity());
+        } else {
+            // The turning encoders wrap around, so only the velocity is meaningful for the fit.
+            position = 0;
+            log.record(activeMechanism.ordinal(), activeTest.ordinal(), timestamp,
+                    drivetrain.getAverageTurningVoltage(), position, drivetrain.getAverageTurningVelocity());
+        }
+
+        double timeout = activeTest.quasistatic
+                ? CharacterizationConstants.quasistaticTimeoutSeconds
+                : CharacterizationConstants.dynamicTimeoutSeconds;
+        boolean travelledTooFar = activeMechanism == Mechanism.DRIVING
+                && Math.abs(position - testStartPosition) >= CharacterizationConstants.maxDrivingDistanceMeters;
+        if (elapsed >= timeout || travelledTooFar || log.isFull()) {
+            testFinished = true;
+            drivetrain.runDrivingCharacterization(0);
+            drivetrain.runTurningCharacterization(0);
+            return;
+        }
+
+        double volts = activeTest.quasistatic
+                ? CharacterizationConstants.quasistaticRampRate * elapsed
+                : CharacterizationConstants.dynamicStepVoltage;
+        volts *= activeTest.direction;
+        if (activeMechanism == Mechanism.DRIVING) {
+            drivetrain.runDrivingCharacterization(volts);
+        } else {
+            drivetrain.runTurningCharacterization(volts);
+        }
+    }
+
+    private void writeLog() {
+        try {
+            log.writeCsv(logFile);
+            DataLogManager.log("Wrote " + log.size() + " characterization samples to " + logFile);
+        } catch (IOException e) {
+            DriverStation.reportError("Failed to write characterization log: " + e.getMessage(), false);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package frc.robot.subsystems.drivetrain.commands;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.Constants.AutoConstants;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.PathPlanningConstants;
+import frc.robot.AllianceFlip;
+import frc.robot.Tunables;
+import frc.robot.math.MutablePose2d;
+import frc.robot.subsystems.drivetrain.DrivetrainSubsystem;
+import frc.robot.subsystems.drivetrain.HeadingController;
+import frc.robot.subsystems.drivetrain.planning.PathPlanner;
+import frc.robot.subsystems.drivetrain.planning.PlannedPath;
+
+/**
+ * Drives the robot to a pose on the field around any obstacles. The path is planned in the
+ * background; until it is ready, the driver keeps control of the robot through the joysticks. The
+ * command ends once the robot reaches the pose, or stalls close to it (the speed near the goal can be
+ * too small to overcome friction). It ends straight away if the pose cannot be reached or the robot
+ * does not know where it is on the field (see {@link DrivetrainSubsystem#isPoseSeeded()}). Routines
+ * that must move on should also bound it with {@link #timeoutSeconds(double)}.
+ */
+public class DriveToPose extends Command {
+    private final DrivetrainSubsystem drivetrain;
+    private final PathPlanner planner;
+    /** Where the robot should end up on the blue alliance. */
+    private final Pose2d goal;
+    /** The goal for the robot's alliance, decided when the command starts. */
+    private Pose2d target;
+    /* The driver's inputs on a [-1.0, 1.0] scale, used until the path is ready. */
+    private final DoubleSupplier xSpeed;
+    private final DoubleSupplier ySpeed;
+    private final DoubleSupplier rot;
+
+    private final ProfiledPIDController headingController = HeadingController.createThetaController();
+    /** Keeps the heading gain tuned while the command runs. Removed again when it ends. */
+    private final DoubleConsumer thetaKpListener = headingController::setP;
+
+    private CompletableFuture<PlannedPath> pendingPath;
+    private PlannedPath path;
+    private int waypoint;
+    private double lastSpeed;
+    /** Set when the command should end without driving, because there is no path or no known pose. */
+    private boolean abandoned;
+    /* Where and when the robot last moved noticeably, to tell when it has stalled. */
+    private double stallAnchorX;
+    private double stallAnchorY;
+    private double stallAnchorTime;
+
+    /**
+     * @param drivetrain The drivetrain.
+     * @param planner The planner to plan the path with.
+     * @param goal Where the robot should end up, on the blue alliance. It is mirrored on red (see
+     * {@link AllianceFlip}).
+     * @param xSpeed The driver's x-speed, used while planning.
+     * @param ySpeed The driver's y-speed, used while planning.
+     * @param rot The driver's rotation, used while planning.
+     */
+    public DriveToPose(DrivetrainSubsystem drivetrain, PathPlanner planner, Pose2d goal, DoubleSupplier xSpeed,
+            DoubleSupplier ySpeed, DoubleSupplier rot) {
+        this.drivetrain = drivetrain;
+        this.planner = planner;
+        this.goal = goal;
+        this.xSpeed = xSpeed;
+        this.ySpeed = ySpeed;
+        this.rot = rot;
+        addRequirements(drivetrain);
+    }
+
+    @Override
+    public void initialize() {
+        headingController.setP(Tunables.thetaKp.get());
+        Tunables.thetaKp.onChange(thetaKpListener);
+        path = null;
+        pendingPath = null;
+        waypoint = 1;
+        lastSpeed = 0;
+        target = AllianceFlip.apply(goal);
+        abandoned = !drivetrain.isPoseSeeded();
+        if (abandoned) {
+            DriverStation.reportWarning("Not driving to " + target + " because the robot's pose on the field is "
+                    + "unknown. Run auto or seed the pose first.", false);
+            return;
+        }
+        MutablePose2d pose = drivetrain.getMutablePose();
+        stallAnchorX = pose.getX();
+        stallAnchorY = pose.getY();
+        stallAnchorTime = Timer.getFPGATimestamp();
+        pendingPath = planner.planAsync(pose.getX(), pose.getY(), target.getX(), target.getY());
+        headingController.reset(drivetrain.getHeadingRadians(), drivetrain.getAngularVelocity());
+    }
+
+    @Override
+    public void execute() {
+        if (abandoned) {
+            return;
+        }
+        if (path == null && pendingPath.isDone()) {
+            if (pendingPath.isCompletedExceptionally()) {
+                // A bug in the planner must not take the rest of the robot code down with it.
+                abandoned = true;
+                Throwable error = pendingPath.handle((result, e) -> e).join();
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                DriverStation.reportError("Failed to plan a path to " + target + ": " + cause, cause.getStackTrace());
+                return;
+            }
+            path = pendingPath.getNow(null);
+            if (path == null) {
+                abandoned = true;
+                DriverStation.reportWarning("No path to " + target, false);
+                return;
+            }
+            MutablePose2d pose = drivetrain.getMutablePose();
+            if (!planner.isReachable(path, pose.getX(), pose.getY())) {
+                // The driver moved the robot while the path was planned, and it can no longer drive
+                // straight onto it, so plan again from here.
+                path = null;
+                pendingPath = planner.planAsync(pose.getX(), pose.getY(), target.getX(), target.getY());
+            }
+        }
+        if (path == null) {
+            // Still planning, so let the driver keep driving, the same way as in TeleopDrive.
+            double sign = AllianceFlip.inputSign();
+            drivetrain.drive(sign * xSpeed.getAsDouble(), sign * ySpeed.getAsDouble(), rot.getAsDouble(), true);
+            return;
+        }
+
+        MutablePose2d pose = drivetrain.getMutablePose();
+        double x = pose.getX();
+        double y = pose.getY();
+        if (Math.hypot(x - stallAnchorX, y - stallAnchorY) > PathPlanningConstants.stallDistanceMeters) {
+            stallAnchorX = x;
+            stallAnchorY = y;
+            stallAnchorTime = Timer.getFPGATimestamp();
+        }
+        int last = path.size() - 1;
+        while (waypoint < last && Math.hypot(path.getX(waypoint) - x, path.getY(waypoint) - y)
+                < PathPlanningConstants.waypointToleranceMeters) {
+            waypoint++;
+        }
+
+        // A cached path may end anywhere in the goal's cell, so drive the last segment to the goal itself.
+        double dx = (waypoint == last ? target.getX() : path.getX(waypoint)) - x;
+        double dy = (waypoint == last ? target.getY() : path.getY(waypoint)) - y;
+        double distance = Math.hypot(dx, dy);
+        double remaining = distance + path.getRemainingLength(waypoint);
+
+        double speed = approachSpeed(remaining, lastSpeed, Tunables.translationKp.get());
+        lastSpeed = speed;
+
+        double fieldVx = distance > 1e-6 ? dx / distance * speed : 0;
+        double fieldVy = distance > 1e-6 ? dy / distance * speed : 0;
+        double omega = headingController.calculate(drivetrain.getHeadingRadians(), target.getRotation().getRadians());
+        // The path is in field coordinates, so drive field relative.
+        drivetrain.drive(fieldVx / DriveConstants.maxSpeed, fieldVy / DriveConstants.maxSpeed,
+                omega / DriveConstants.maxAngularSpeed, true);
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        Tunables.thetaKp.removeListener(thetaKpListener);
+        drivetrain.drive(0, 0, 0, false);
+    }
+
+    @Override
+    public boolean isFinished() {
+        if (abandoned) {
+            return true;
+        }
+        if (path == null || waypoint < path.size() - 1) {
+            return false;
+        }
+        MutablePose2d pose = drivetrain.getMutablePose();
+        double headingError = Math.abs(
+                MathUtil.angleModulus(target.getRotation().getRadians() - pose.getRotation().getRadians()));
+        double distance = Math.hypot(target.getX() - pose.getX(), target.getY() - pose.getY());
+        if (distance < PathPlanningConstants.goalToleranceMeters
+                && headingError < PathPlanningConstants.goalHeadingToleranceRadians) {
+            return true;
+        }
+        // Close enough to carry on, and no longer getting any closer.
+        return distance < PathPlanningConstants.settleToleranceMeters
+                && Timer.getFPGATimestamp() - stallAnchorTime > PathPlanningConstants.stallSeconds;
+    }
+
+    /**
+     * The speed to drive along the path at. The robot accelerates up to the auto speed limit, brakes in
+     * time to stop at the goal, and slows down in proportion to the distance left, but no slower than
+     * {@link PathPlanningConstants#minApproachSpeedMetersPerSecond} until it brakes.
+     * 
+     * @param remaining The distance left along the path in meters.
+     * @param lastSpeed The speed the previous loop drove at in meters per second.
+     * @param translationKp The proportional gain, in meters per second per meter left.
+     * @return The speed in meters per second.
+     */
+    public static double approachSpeed(double remaining, double lastSpeed, double translationKp) {
+        double speed = Math.min(AutoConstants.maxSpeedsMetersPerSecond,
+                Math.sqrt(2 * AutoConstants.maxAccelerationMetersPerSecondSquared * remaining));
+        speed = Math.min(speed,
+                lastSpeed + AutoConstants.maxAccelerationMetersPerSecondSquared * TimedRobot.kDefaultPeriod);
+        return Math.min(speed,
+                Math.max(translationKp * remaining, PathPlanningConstants.minApproachSpeedMetersPerSecond));
+    }
+
+    /**
+     * @param pathLength The length of the path in meters (see {@link PlannedPath#getRemainingLength(int)}).
+     * @return A time limit for driving a path of this length with the current tunable translation gain
+     * (see {@link #timeoutSeconds(double, double)}).
+     */
+    public static double timeoutSeconds(double pathLength) {
+        return timeoutSeconds(pathLength, Tunables.translationKp.get());
+    }
+
+    /**
+     * @param pathLength The length of the path in meters.
+     * @param translationKp The proportional gain the path is driven with.
+     * @return A time limit for driving a path of this length: the time {@link #approachSpeed} takes to
+     * come within {@link PathPlanningConstants#goalToleranceMeters}, plus
+     * {@link PathPlanningConstants#driveTimeoutMarginSeconds}.
+     */
+    public static double timeoutSeconds(double pathLength, double translationKp) {
+        double remaining = pathLength;
+        double speed = 0;
+        double seconds = 0;
+        // Replay the speed one loop at a time, as if the modules followed it exactly.
+        while (remaining >= PathPlanningConstants.goalToleranceMeters) {
+            speed = approachSpeed(remaining, speed, translationKp);
+            remaining -= speed * TimedRobot.kDefaultPeriod;
+            seconds += TimedRobot.kDefaultPeriod;
+        }
+        return seconds + PathPlanningConstants.driveTimeoutMarginSeconds;
+    }
+}
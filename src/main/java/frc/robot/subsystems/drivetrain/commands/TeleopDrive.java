@@ -0,0 +1,63 @@
+package frc.robot.subsystems.drivetrain.commands;
+
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.AllianceFlip;
+import frc.robot.subsystems.drivetrain.DrivetrainSubsystem;
+import frc.robot.subsystems.drivetrain.HeadingController;
+
+/**
+ * Drives the robot with the driver's inputs, relative to the field: pushing the stick forward drives
+ * away from the driver's alliance wall whichever way the robot faces (see {@link AllianceFlip}). The rotation goes through a
+ * {@link HeadingController}, so the robot holds its heading while the rotation stick is released.
+ * Both use the odometry heading (see {@link DrivetrainSubsystem#getHeadingRadians()}), so the stick
+ * directions and the snaps always agree.
+ */
+public class TeleopDrive extends Command {
+    private final DrivetrainSubsystem drivetrain;
+    private final HeadingController headingController;
+    private final DoubleSupplier xSpeed;
+    private final DoubleSupplier ySpeed;
+    private final DoubleSupplier rot;
+
+    /**
+     * @param drivetrain The drivetrain.
+     * @param headingController Holds and snaps the heading.
+     * @param xSpeed The driver's x-speed on a [-1.0, 1.0] scale.
+     * @param ySpeed The driver's y-speed on a [-1.0, 1.0] scale.
+     * @param rot The driver's rotation on a [-1.0, 1.0] scale.
+     */
+    public TeleopDrive(DrivetrainSubsystem drivetrain, HeadingController headingController, DoubleSupplier xSpeed,
+            DoubleSupplier ySpeed, DoubleSupplier rot) {
+        this.drivetrain = drivetrain;
+        this.headingController = headingController;
+        this.xSpeed = xSpeed;
+        this.ySpeed = ySpeed;
+        this.rot = rot;
+        addRequirements(drivetrain);
+    }
+
+    @Override
+    public void initialize() {
+        // Another command may have turned the robot, so don't snap back to an old heading.
+        headingController.reset();
+    }
+
+    @Override
+    public void execute() {
+        double rotation = headingController.calculate(rot.getAsDouble(), drivetrain.getHeadingRadians(),
+                drivetrain.getAngularVelocity());
+        double sign = AllianceFlip.inputSign();
+        drivetrain.drive(sign * xSpeed.getAsDouble(), sign * ySpeed.getAsDouble(), rotation, true);
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+    }
+
+    @Override
+    public boolean isFinished() {
+        return false;
+    }
+}
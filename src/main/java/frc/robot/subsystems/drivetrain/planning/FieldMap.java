@@ -0,0 +1,243 @@
+package frc.robot.subsystems.drivetrain.planning;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An occupancy grid of the field, loaded from a text file in the deploy directory. Obstacles are
+ * grown by the radius of the robot, so a planner can treat the robot as a point.
+ *
+ * <p>The file has one command per line, and anything after a '#' is ignored:
+ * <pre>
+ * field &lt;length&gt; &lt;width&gt;     size of the field in meters
+ * cell &lt;size&gt;                 size of a grid cell in meters
+ * robot &lt;radius&gt;              radius to grow obstacles by in meters
+ * rect &lt;x1&gt; &lt;y1&gt; &lt;x2&gt; &lt;y2&gt;   an obstacle between two corners in meters
+ * </pre>
+ * The field, cell and robot lines must come before any obstacles.
+ */
+public class FieldMap {
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final boolean[] blocked;
+
+    private FieldMap(double cellSize, int columns, int rows) {
+        this.cellSize = cellSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.blocked = new boolean[columns * rows];
+    }
+
+    /**
+     * Loads a field map from a file.
+     * 
+     * @param file The file to load.
+     * @return The field map.
+     * @throws IOException If the file could not be read.
+     * @throws IllegalArgumentException If the file is malformed.
+     */
+    public static FieldMap load(Path file) throws IOException {
+        double length = 0;
+        double width = 0;
+        double cellSize = 0.1;
+        double robotRadius = 0;
+        FieldMap map = null;
+
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                if (comment >= 0) {
+                    line = line.substring(0, comment);
+                }
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                try {
+                    switch (fields[0]) {
+                        case "field":
+                            length = Double.parseDouble(fields[1]);
+                            width = Double.parseDouble(fields[2]);
+                            break;
+                        case "cell":
+                            cellSize = Double.parseDouble(fields[1]);
+                            break;
+                        case "robot":
+                            robotRadius = Double.parseDouble(fields[1]);
+                            break;
+                        case "rect":
+                            if (map == null) {
+                                if (length <= 0 || width <= 0) {
+                                    throw new IllegalArgumentException("The field size must come before obstacles");
+                                }
+                                map = new FieldMap(cellSize, (int) Math.ceil(length / cellSize),
+                                        (int) Math.ceil(width / cellSize));
+                            }
+                            map.addObstacle(Double.parseDouble(fields[1]), Double.parseDouble(fields[2]),
+                                    Double.parseDouble(fields[3]), Double.parseDouble(fields[4]), robotRadius);
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown command '" + fields[0] + "'");
+                    }
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    throw new IllegalArgumentException("Malformed line " + lineNumber + " of " + file, e);
+                }
+            }
+        }
+        if (map == null) {
+            if (length <= 0 || width <= 0) {
+                throw new IllegalArgumentException("No field size in " + file);
+            }
+            map = new FieldMap(cellSize, (int) Math.ceil(length / cellSize), (int) Math.ceil(width / cellSize));
+        }
+        map.blockBorder(robotRadius);
+        return map;
+    }
+
+    /** Blocks every cell within the (grown) rectangle. */
+    private void addObstacle(double x1, double y1, double x2, double y2, double radius) {
+        int minColumn = clampColumn((int) Math.floor((Math.min(x1, x2) - radius) / cellSize));
+        int maxColumn = clampColumn((int) Math.floor((Math.max(x1, x2) + radius) / cellSize));
+        int minRow = clampRow((int) Math.floor((Math.min(y1, y2) - radius) / cellSize));
+        int maxRow = clampRow((int) Math.floor((Math.max(y1, y2) + radius) / cellSize));
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                blocked[row * columns + column] = true;
+            }
+        }
+    }
+
+    /** Blocks the cells the robot cannot reach because of the field walls. */
+    private void blockBorder(double radius) {
+        int margin = (int) Math.ceil(radius / cellSize);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                if (row < margin || column < margin || row >= rows - margin || column >= columns - margin) {
+                    blocked[row * columns + column] = true;
+                }
+            }
+        }
+    }
+
+    private int clampColumn(int column) {
+        return Math.max(0, Math.min(columns - 1, column));
+    }
+
+    private int clampRow(int row) {
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    /**
+     * @return The index of the cell containing a point, clamped to the field.
+     */
+    public int cellAt(double x, double y) {
+        return clampRow((int) Math.floor(y / cellSize)) * columns + clampColumn((int) Math.floor(x / cellSize));
+    }
+
+    /**
+     * @return The x coordinate of the center of a cell in meters.
+     */
+    public double cellX(int cell) {
+        return (cell % columns + 0.5) * cellSize;
+    }
+
+    /**
+     * @return The y coordinate of the center of a cell in meters.
+     */
+    public double cellY(int cell) {
+        return (cell / columns + 0.5) * cellSize;
+    }
+
+    /**
+     * @return Whether or not the robot's center can be in a cell.
+     */
+    public boolean isBlocked(int cell) {
+        return blocked[cell];
+    }
+
+    /**
+     * Finds the free cell whose center is closest to a point, such as to get the robot out of the
+     * space around an obstacle it has been pushed into.
+     *
+     * @return The index of the cell, or -1 if every cell is blocked.
+     */
+    public int nearestFreeCell(double x, double y) {
+        int centerColumn = clampColumn((int) Math.floor(x / cellSize));
+        int centerRow = clampRow((int) Math.floor(y / cellSize));
+        int nearest = -1;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        // Search squares of cells around the point, growing outwards until no closer cell can be left.
+        for (int radius = 0; radius < Math.max(columns, rows); radius++) {
+            if ((radius - 1) * cellSize > nearestDistance) {
+                break;
+            }
+            for (int row = centerRow - radius; row <= centerRow + radius; row++) {
+                for (int column = centerColumn - radius; column <= centerColumn + radius; column++) {
+                    boolean onSquare = Math.abs(row - centerRow) == radius || Math.abs(column - centerColumn) == radius;
+                    if (!onSquare || row < 0 || column < 0 || row >= rows || column >= columns
+                            || blocked[row * columns + column]) {
+                        continue;
+                    }
+                    int cell = row * columns + column;
+                    double distance = Math.hypot(cellX(cell) - x, cellY(cell) - y);
+                    if (distance < nearestDistance) {
+                        nearest = cell;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * @return Whether or not the robot can drive in a straight line between two points. The line is
+     * sampled every half cell.
+     */
+    public boolean hasLineOfSight(double x1, double y1, double x2, double y2) {
+        double distance = Math.hypot(x2 - x1, y2 - y1);
+        int samples = (int) Math.ceil(distance / (cellSize / 2));
+        for (int i = 0; i <= samples; i++) {
+            double t = samples == 0 ? 0 : (double) i / samples;
+            if (blocked[cellAt(x1 + (x2 - x1) * t, y1 + (y2 - y1) * t)]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The size of a cell in meters.
+     */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * @return The number of columns (along the length of the field).
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return The number of rows (along the width of the field).
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return The total number of cells.
+     */
+    public int getCellCount() {
+        return blocked.length;
+    }
+}
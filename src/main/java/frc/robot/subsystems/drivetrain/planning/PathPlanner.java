@@ -0,0 +1,355 @@
+package frc.robot.subsystems.drivetrain.planning;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Plans paths around the obstacles in a {@link FieldMap}. A* is run over the grid (moving to any of
+ * the eight neighbouring cells), and the resulting chain of cells is shortened to the waypoints that
+ * can see each other, which gives the same paths as a visibility graph for a fine enough grid.
+ *
+ * <p>Plans are made on a background thread so the main loop never waits on a search. Recent plans
+ * are kept in a least recently used cache keyed by the goal cell and a coarse square around the start,
+ * so asking for the same target again from roughly the same place is answered immediately. A cached
+ * path may have been planned from elsewhere in the start square, so it is only used if the robot can
+ * drive straight from where it is to the path's second waypoint.
+ *
+ * <p>The robot can end up in the space around an obstacle or wall that its center should stay out of,
+ * such as when it is pushed with its bumpers against the wall. A path from there first drives straight
+ * to the nearest free cell, and is planned from that cell.
+ */
+public class PathPlanner {
+    private static final double diagonalCost = Math.sqrt(2);
+
+    private final FieldMap map;
+    /** The width of the squares starts are grouped into for the cache key, in meters. */
+    private final double startQuantization;
+    /** The number of start squares across the field. */
+    private final int startColumns;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "PathPlanner");
+        thread.setDaemon(true);
+        // Planning should never take time away from the main loop.
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private final Map<Long, PlannedPath> cache;
+
+    /* Search storage, allocated once and only touched by one search at a time. A cell's score is only
+    valid if its stamp matches the current search, which avoids clearing the arrays every search. */
+    private final double[] costs;
+    private final int[] parents;
+    private final int[] openStamps;
+    private final int[] closedStamps;
+    private int stamp = 0;
+    private int[] heap;
+    private double[] heapScores;
+    private int heapSize = 0;
+    private final int[] chain;
+
+    /**
+     * @param map The field to plan over.
+     * @param cacheCapacity The number of recent plans to keep.
+     * @param startQuantization The width of the squares that starts are grouped into when caching, in
+     * meters.
+     */
+    public PathPlanner(FieldMap map, int cacheCapacity, double startQuantization) {
+        this.map = map;
+        this.startQuantization = startQuantization;
+        startColumns = (int) Math.ceil(map.getColumns() * map.getCellSize() / startQuantization);
+        int cells = map.getCellCount();
+        costs = new double[cells];
+        parents = new int[cells];
+        openStamps = new int[cells];
+        closedStamps = new int[cells];
+        heap = new int[cells];
+        heapScores = new double[cells];
+        chain = new int[cells];
+        cache = new LinkedHashMap<>(cacheCapacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, PlannedPath> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+    }
+
+    /**
+     * Plans a path in the background. If the path is already cached, the returned future is complete.
+     * 
+     * @return A future that completes with the path, or with null if the goal cannot be reached.
+     */
+    public CompletableFuture<PlannedPath> planAsync(double startX, double startY, double goalX, double goalY) {
+        PlannedPath cached = getCached(startX, startY, goalX, goalY);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return CompletableFuture.supplyAsync(() -> plan(startX, startY, goalX, goalY), executor);
+    }
+
+    /**
+     * @return The cached path between two points, or null if it has not been planned recently from
+     * close enough to the start.
+     */
+    public PlannedPath getCached(double startX, double startY, double goalX, double goalY) {
+        PlannedPath cached;
+        synchronized (cache) {
+            cached = cache.get(key(startX, startY, map.cellAt(goalX, goalY)));
+        }
+        return cached != null && isReachable(cached, startX, startY) ? cached : null;
+    }
+
+    /**
+     * Plans a path on the calling thread, using the cache. Must not be called from the main loop, and
+     * must not be called from more than one thread at a time.
+     * 
+     * @return The path, or null if the goal cannot be reached.
+     */
+    public synchronized PlannedPath plan(double startX, double startY, double goalX, double goalY) {
+        int start = startCell(startX, startY);
+        int goal = map.cellAt(goalX, goalY);
+        long key = key(startX, startY, goal);
+        PlannedPath cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null && isReachable(cached, startX, startY)) {
+            return cached;
+        }
+        if (start < 0 || map.isBlocked(goal)) {
+            return null;
+        }
+        int length = search(start, goal);
+        if (length < 0) {
+            return null;
+        }
+        PlannedPath path = shorten(length, startX, startY, start, goalX, goalY);
+        synchronized (cache) {
+            cache.put(key, path);
+        }
+        return path;
+    }
+
+    /** Removes every cached plan. */
+    public void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return The cache key for a start point and a goal cell.
+     */
+    private long key(double startX, double startY, int goalCell) {
+        int startSquare = (int) Math.floor(startY / startQuantization) * startColumns
+                + (int) Math.floor(startX / startQuantization);
+        return ((long) startSquare << 32) | (goalCell & 0xffffffffL);
+    }
+
+    /**
+     * @return The cell to search from: the start point's cell, or the nearest free cell if the start
+     * is blocked. -1 if there is no free cell.
+     */
+    private int startCell(double startX, double startY) {
+        int start = map.cellAt(startX, startY);
+        return map.isBlocked(start) ? map.nearestFreeCell(startX, startY) : start;
+    }
+
+    /**
+     * Checks whether the robot can drive straight from a start point onto a path that was planned
+     * from somewhere nearby, or from the same place before the robot moved. From a blocked start, the
+     * path has to lead out to the same nearest free cell as a new plan would.
+     * 
+     * @return Whether or not the path can be followed from the start point.
+     */
+    public boolean isReachable(PlannedPath path, double startX, double startY) {
+        int start = map.cellAt(startX, startY);
+        if (map.isBlocked(start)) {
+            int free = map.nearestFreeCell(startX, startY);
+            return free >= 0 && map.cellAt(path.getX(1), path.getY(1)) == free;
+        }
+        return map.hasLineOfSight(startX, startY, path.getX(1), path.getY(1));
+    }
+
+    /**
+     * Runs A* from the start cell to the goal cell, through free cells only.
+     * 
+     * @return The number of cells in the chain from start to goal (stored in reverse in chain), or -1
+     * if there is no path.
+     */
+    private int search(int start, int goal) {
+        stamp++;
+        heapSize = 0;
+        int columns = map.getColumns();
+        int rows = map.getRows();
+        double goalX = goal % columns;
+        double goalY = goal / columns;
+
+        costs[start] = 0;
+        parents[start] = -1;
+        openStamps[start] = stamp;
+        push(start, heuristic(start % columns, start / columns, goalX, goalY));
+
+        while (heapSize > 0) {
+            int cell = pop();
+            if (closedStamps[cell] == stamp) {
+                continue;
+            }
+            closedStamps[cell] = stamp;
+            if (cell == goal) {
+                int length = 0;
+                for (int c = goal; c != -1; c = parents[c]) {
+                    chain[length++] = c;
+                }
+                return length;
+            }
+            int column = cell % columns;
+            int row = cell / columns;
+            for (int dRow = -1; dRow <= 1; dRow++) {
+                for (int dColumn = -1; dColumn <= 1; dColumn++) {
+                    if (dRow == 0 && dColumn == 0) {
+                        continue;
+                    }
+                    int nextColumn = column + dColumn;
+                    int nextRow = row + dRow;
+                    if (nextColumn < 0 || nextRow < 0 || nextColumn >= columns || nextRow >= rows) {
+                        continue;
+                    }
+                    int next = nextRow * columns + nextColumn;
+                    if (map.isBlocked(next) || closedStamps[next] == stamp) {
+                        continue;
+                    }
+                    boolean diagonal = dRow != 0 && dColumn != 0;
+                    // Don't cut corners of obstacles when moving diagonally.
+                    if (diagonal && (map.isBlocked(row * columns + nextColumn)
+                            || map.isBlocked(nextRow * columns + column))) {
+                        continue;
+                    }
+                    double cost = costs[cell] + (diagonal ? diagonalCost : 1);
+                    if (openStamps[next] != stamp || cost < costs[next]) {
+                        openStamps[next] = stamp;
+                        costs[next] = cost;
+                        parents[next] = cell;
+                        push(next, cost + heuristic(nextColumn, nextRow, goalX, goalY));
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /** The octile distance, which is exact on an empty eight connected grid. */
+    private static double heuristic(double column, double row, double goalColumn, double goalRow) {
+        double dx = Math.abs(goalColumn - column);
+        double dy = Math.abs(goalRow - row);
+        return Math.max(dx, dy) + (diagonalCost - 1) * Math.min(dx, dy);
+    }
+
+    /**
+     * Turns the chain of cells into the fewest waypoints that can see each other, starting from the
+     * robot's real position and ending at the real goal.
+     * 
+     * @param startCell The cell the search started from, which is not the start point's cell if that
+     * is blocked.
+     */
+    private PlannedPath shorten(int length, double startX, double startY, int startCell, double goalX,
+            double goalY) {
+        // The chain is stored goal first, so walk it backwards.
+        double[] xs = new double[length + 2];
+        double[] ys = new double[length + 2];
+        int count = 0;
+        xs[count] = startX;
+        ys[count] = startY;
+        count++;
+
+        double anchorX = startX;
+        double anchorY = startY;
+        if (startCell != map.cellAt(startX, startY)) {
+            // Drive out to the free cell first, and only then on along the chain.
+            anchorX = map.cellX(startCell);
+            anchorY = map.cellY(startCell);
+            xs[count] = anchorX;
+            ys[count] = anchorY;
+            count++;
+        }
+        int index = length - 1;
+        while (index > 0) {
+            // Find the furthest cell along the chain that can be reached in a straight line.
+            int furthest = index;
+            for (int candidate = 0; candidate < index; candidate++) {
+                double x = candidate == 0 ? goalX : map.cellX(chain[candidate]);
+                double y = candidate == 0 ? goalY : map.cellY(chain[candidate]);
+                if (map.hasLineOfSight(anchorX, anchorY, x, y)) {
+                    furthest = candidate;
+                    break;
+                }
+            }
+            if (furthest == index) {
+                // Nothing further is visible, which the grid should not allow, so take one step.
+                furthest = index - 1;
+            }
+            anchorX = furthest == 0 ? goalX : map.cellX(chain[furthest]);
+            anchorY = furthest == 0 ? goalY : map.cellY(chain[furthest]);
+            xs[count] = anchorX;
+            ys[count] = anchorY;
+            count++;
+            index = furthest;
+        }
+        if (length == 1) {
+            // The search started in the goal's cell.
+            xs[count] = goalX;
+            ys[count] = goalY;
+            count++;
+        }
+        return new PlannedPath(Arrays.copyOf(xs, count), Arrays.copyOf(ys, count));
+    }
+
+    private void push(int cell, double score) {
+        if (heapSize == heap.length) {
+            // A cell can be pushed more than once, so the heap may need to grow.
+            heap = Arrays.copyOf(heap, heap.length * 2);
+            heapScores = Arrays.copyOf(heapScores, heapScores.length * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heapScores[parent] <= score) {
+                break;
+            }
+            heap[i] = heap[parent];
+            heapScores[i] = heapScores[parent];
+            i = parent;
+        }
+        heap[i] = cell;
+        heapScores[i] = score;
+    }
+
+    private int pop() {
+        int top = heap[0];
+        heapSize--;
+        int cell = heap[heapSize];
+        double score = heapScores[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapScores[child + 1] < heapScores[child]) {
+                child++;
+            }
+            if (heapScores[child] >= score) {
+                break;
+            }
+            heap[i] = heap[child];
+            heapScores[i] = heapScores[child];
+            i = child;
+        }
+        heap[i] = cell;
+        heapScores[i] = score;
+        return top;
+    }
+}
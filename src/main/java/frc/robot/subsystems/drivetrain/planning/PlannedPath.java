@@ -0,0 +1,49 @@
+package frc.robot.subsystems.drivetrain.planning;
+
+/**
+ * A path of straight line segments through the field, from the start to the goal. Paths are shared
+ * through the planner's cache, so they cannot be changed once created.
+ */
+public final class PlannedPath {
+    private final double[] xs;
+    private final double[] ys;
+    /** The length of the path from each waypoint to the goal, in meters. */
+    private final double[] remainingLengths;
+
+    PlannedPath(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+        remainingLengths = new double[xs.length];
+        for (int i = xs.length - 2; i >= 0; i--) {
+            remainingLengths[i] = remainingLengths[i + 1] + Math.hypot(xs[i + 1] - xs[i], ys[i + 1] - ys[i]);
+        }
+    }
+
+    /**
+     * @return The number of waypoints, including the start and the goal.
+     */
+    public int size() {
+        return xs.length;
+    }
+
+    /**
+     * @return The x coordinate of a waypoint in meters.
+     */
+    public double getX(int waypoint) {
+        return xs[waypoint];
+    }
+
+    /**
+     * @return The y coordinate of a waypoint in meters.
+     */
+    public double getY(int waypoint) {
+        return ys[waypoint];
+    }
+
+    /**
+     * @return The length of the path from a waypoint to the goal in meters.
+     */
+    public double getRemainingLength(int waypoint) {
+        return remainingLengths[waypoint];
+    }
+}
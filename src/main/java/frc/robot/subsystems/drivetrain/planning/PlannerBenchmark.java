@@ -0,0 +1,87 @@
+package frc.robot.subsystems.drivetrain.planning;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import frc.robot.Constants.PathPlanningConstants;
+
+/**
+ * Measures how long the planner takes to plan between points spread across the whole field, both
+ * from scratch and from the cache. Run with {@code ./gradlew benchmarkPlanner}.
+ */
+public final class PlannerBenchmark {
+    /** Distance between the sampled start and goal points in meters. */
+    private static final double spacing = 1.0;
+    private static final int warmupPlans = 500;
+
+    private PlannerBenchmark() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    public static void main(String... args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : "src/main/deploy/field_obstacles.txt");
+        FieldMap map = FieldMap.load(file);
+        PathPlanner planner = new PathPlanner(map, 1, PathPlanningConstants.cacheStartQuantizationMeters);
+
+        // Every free point on a grid across the field.
+        double length = map.getColumns() * map.getCellSize();
+        double width = map.getRows() * map.getCellSize();
+        int maxPoints = (int) (Math.ceil(length / spacing) * Math.ceil(width / spacing));
+        double[] xs = new double[maxPoints];
+        double[] ys = new double[maxPoints];
+        int points = 0;
+        for (double x = spacing / 2; x < length; x += spacing) {
+            for (double y = spacing / 2; y < width; y += spacing) {
+                if (!map.isBlocked(map.cellAt(x, y))) {
+                    xs[points] = x;
+                    ys[points] = y;
+                    points++;
+                }
+            }
+        }
+
+        // Let the JIT compile the search before timing it.
+        for (int i = 0; i < warmupPlans; i++) {
+            planner.clearCache();
+            planner.plan(xs[i % points], ys[i % points], xs[(i * 7) % points], ys[(i * 7) % points]);
+        }
+
+        long[] coldNanos = new long[points * points];
+        long[] cachedNanos = new long[points * points];
+        int plans = 0;
+        int unreachable = 0;
+        for (int start = 0; start < points; start++) {
+            for (int goal = 0; goal < points; goal++) {
+                planner.clearCache();
+                long begin = System.nanoTime();
+                PlannedPath path = planner.plan(xs[start], ys[start], xs[goal], ys[goal]);
+                coldNanos[plans] = System.nanoTime() - begin;
+                begin = System.nanoTime();
+                planner.getCached(xs[start], ys[start], xs[goal], ys[goal]);
+                cachedNanos[plans] = System.nanoTime() - begin;
+                if (path == null) {
+                    unreachable++;
+                }
+                plans++;
+            }
+        }
+
+        System.out.printf("%d plans between %d points on a %dx%d grid (%d unreachable)%n",
+                plans, points, map.getColumns(), map.getRows(), unreachable);
+        report("Planning", coldNanos, plans);
+        report("Cached", cachedNanos, plans);
+    }
+
+    private static void report(String name, long[] nanos, int count) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        double total = 0;
+        for (long n : sorted) {
+            total += n;
+        }
+        System.out.printf("%s: mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", name,
+                total / count / 1e6, sorted[count / 2] / 1e6,
+                sorted[Math.min(count - 1, (int) (count * 0.99))] / 1e6, sorted[count - 1] / 1e6);
+    }
+}
@@ -12,4 +12,18 @@ public class IntakeSubsystem extends SubsystemBase {
     public IntakeSubsystem() {
         intakeMotor = new SparkMax(IntakeConstants.intakeMotorId, MotorType.kBrushless);
     }
+
+    /**
+     * Runs the intake open loop. Positive speeds pull game pieces in.
+     * 
+     * @param speed The speed of the intake on a [-1.0, 1.0] scale.
+     */
+    public void setSpeed(double speed) {
+        intakeMotor.set(speed);
+    }
+
+    /** Stops the intake. */
+    public void stop() {
+        intakeMotor.stopMotor();
+    }
 }
@@ -1,16 +1,77 @@
-
 package frc.robot.subsystems.shooter;
 
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.sim.SparkMaxSim;
 import com.revrobotics.spark.SparkMax;
 import com.revrobotics.spark.SparkLowLevel.MotorType;
 
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.NeoMotorConstants;
 import frc.robot.Constants.ShooterConstants;
 
 public class ShooterSubsystem extends SubsystemBase {
     private final SparkMax shooterMotor;
+    private final RelativeEncoder shooterEncoder;
+
+    /* Simulation. The motor controller is null on the real robot. */
+    private final SparkMaxSim shooterSim;
+    /** The last open loop speed the shooter was set to, which the simulated flywheel spins towards. */
+    private double commandedSpeed = 0;
+    private double simulatedRpm = 0;
+    private double lastSimulationTimestamp = Timer.getFPGATimestamp();
 
     public ShooterSubsystem() {
         shooterMotor = new SparkMax(ShooterConstants.shooterMotorId, MotorType.kBrushless);
+        shooterEncoder = shooterMotor.getEncoder();
+        shooterSim = RobotBase.isSimulation() ? new SparkMaxSim(shooterMotor, DCMotor.getNEO(1)) : null;
+    }
+
+    /**
+     * Runs the shooter open loop. Positive speeds shoot game pieces out.
+     * 
+     * @param speed The speed of the shooter on a [-1.0, 1.0] scale.
+     */
+    public void setSpeed(double speed) {
+        commandedSpeed = speed;
+        shooterMotor.set(speed);
+    }
+
+    /** Stops the shooter. It coasts down rather than braking. */
+    public void stop() {
+        commandedSpeed = 0;
+        shooterMotor.stopMotor();
+    }
+
+    /**
+     * @return The speed of the shooter motor in RPM.
+     */
+    public double getVelocityRpm() {
+        return shooterEncoder.getVelocity();
+    }
+
+    /**
+     * @return Whether or not the shooter is fast enough to shoot (see Constants.java).
+     */
+    public boolean isAtSpeed() {
+        return getVelocityRpm() >= ShooterConstants.readyRpm;
+    }
+
+    /**
+     * Spins the simulated flywheel towards the free speed at the commanded output, with a first order
+     * lag (see {@link ShooterConstants#simulatedSpinUpTimeConstant}).
+     */
+    @Override
+    public void simulationPeriodic() {
+        double timestamp = Timer.getFPGATimestamp();
+        double dt = timestamp - lastSimulationTimestamp;
+        lastSimulationTimestamp = timestamp;
+        double targetRpm = commandedSpeed * NeoMotorConstants.freeSpeedRpm;
+        simulatedRpm += (targetRpm - simulatedRpm)
+                * (1 - Math.exp(-dt / ShooterConstants.simulatedSpinUpTimeConstant));
+        shooterSim.iterate(simulatedRpm, RobotController.getBatteryVoltage(), dt);
     }
 }
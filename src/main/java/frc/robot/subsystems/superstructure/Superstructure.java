@@ -0,0 +1,248 @@
+package frc.robot.subsystems.superstructure;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.IntakeConstants;
+import frc.robot.Constants.ShooterConstants;
+import frc.robot.Constants.SuperstructureConstants;
+import frc.robot.subsystems.intake.IntakeSubsystem;
+import frc.robot.subsystems.shooter.ShooterSubsystem;
+
+/**
+ * Coordinates the intake and shooter with a table driven state machine, so the mechanisms can work
+ * at the same time instead of handing off to each other one command at a time. For example, the
+ * shooter spins up while the intake is still staging a game piece.
+ *
+ * <p>The next state for every combination of state, goal and condition is computed once when the
+ * class is loaded, so each loop is a single array lookup. The time spent in each state before every
+ * transition is recorded, and the last, average and longest times are published under
+ * "Superstructure" on the dashboard so gaps between the mechanisms can be found.
+ */
+public class Superstructure extends SubsystemBase {
+    /** What the driver wants the superstructure to do. */
+    public enum Goal {
+        /** Stop intaking and hold any game piece. */
+        IDLE,
+        /** Pick up a game piece. */
+        INTAKE,
+        /** Shoot the held game piece. */
+        SHOOT
+    }
+
+    /** The states of the superstructure, with the output of each mechanism in that state. */
+    public enum State {
+        IDLE(0, false, 0),
+        INTAKING(IntakeConstants.intakingSpeed, false, 0),
+        STAGING(IntakeConstants.stagingSpeed, false, SuperstructureConstants.stagingSeconds),
+        STAGED(0, false, 0),
+        /** Staging and spinning up at the same time, when the driver shoots straight after intaking. */
+        STAGING_AND_SPINNING_UP(IntakeConstants.stagingSpeed, true, SuperstructureConstants.stagingSeconds),
+        SPINNING_UP(0, true, 0),
+        SHOOTING(IntakeConstants.feedingSpeed, true, SuperstructureConstants.shootingSeconds);
+
+        private final double intakeSpeed;
+        private final boolean shooterOn;
+        /** How long the superstructure must stay in this state before the timer condition is met. */
+        private final double minimumSeconds;
+
+        State(double intakeSpeed, boolean shooterOn, double minimumSeconds) {
+            this.intakeSpeed = intakeSpeed;
+            this.shooterOn = shooterOn;
+            this.minimumSeconds = minimumSeconds;
+        }
+    }
+
+    /* Conditions are packed into the bits of an index into the transition table. */
+    private static final int timerDoneBit = 1;
+    private static final int shooterAtSpeedBit = 2;
+    private static final int conditionCount = 4;
+
+    private static final State[] states = State.values();
+    private static final Goal[] goals = Goal.values();
+    /** The next state, indexed by [state][goal][conditions]. */
+    private static final State[][][] transitions = new State[states.length][goals.length][conditionCount];
+
+    static {
+        for (State state : states) {
+            for (Goal goal : goals) {
+                for (int conditions = 0; conditions < conditionCount; conditions++) {
+                    transitions[state.ordinal()][goal.ordinal()][conditions] = computeTransition(state, goal,
+                            (conditions & timerDoneBit) != 0, (conditions & shooterAtSpeedBit) != 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks up the next state in the transition table. Package-private so the table can be tested.
+     * 
+     * @param state The current state.
+     * @param goal The current goal.
+     * @param timerDone Whether the current state has lasted its minimum time.
+     * @param shooterAtSpeed Whether the shooter is fast enough to shoot.
+     * @return The state for the next loop.
+     */
+    static State nextState(State state, Goal goal, boolean timerDone, boolean shooterAtSpeed) {
+        int conditions = 0;
+        if (timerDone) {
+            conditions |= timerDoneBit;
+        }
+        if (shooterAtSpeed) {
+            conditions |= shooterAtSpeedBit;
+        }
+        return transitions[state.ordinal()][goal.ordinal()][conditions];
+    }
+
+    /**
+     * The rules of the state machine. Only called while building the transition table.
+     */
+    private static State computeTransition(State state, Goal goal, boolean timerDone, boolean shooterAtSpeed) {
+        // A shot is never cut short, so the game piece does not get stuck half way into the shooter.
+        if (state == State.SHOOTING && !timerDone) {
+            return State.SHOOTING;
+        }
+        if (goal == Goal.INTAKE) {
+            return State.INTAKING;
+        }
+        switch (state) {
+            case IDLE:
+                return goal == Goal.SHOOT ? State.SPINNING_UP : State.IDLE;
+            case INTAKING:
+                // Start spinning up while the game piece is still being staged.
+                return goal == Goal.SHOOT ? State.STAGING_AND_SPINNING_UP : State.STAGING;
+            case STAGING:
+                if (goal == Goal.SHOOT) {
+                    return State.STAGING_AND_SPINNING_UP;
+                }
+                return timerDone ? State.STAGED : State.STAGING;
+            case STAGED:
+                return goal == Goal.SHOOT ? State.SPINNING_UP : State.STAGED;
+            case STAGING_AND_SPINNING_UP:
+                if (goal == Goal.IDLE) {
+                    return State.STAGING;
+                }
+                if (!timerDone) {
+                    return State.STAGING_AND_SPINNING_UP;
+                }
+                return shooterAtSpeed ? State.SHOOTING : State.SPINNING_UP;
+            case SPINNING_UP:
+                if (goal == Goal.IDLE) {
+                    return State.STAGED;
+                }
+                return shooterAtSpeed ? State.SHOOTING : State.SPINNING_UP;
+            case SHOOTING:
+                // Keep feeding while the driver holds shoot.
+                return goal == Goal.SHOOT ? State.SHOOTING : State.IDLE;
+            default:
+                return state;
+        }
+    }
+
+    private final IntakeSubsystem intake;
+    private final ShooterSubsystem shooter;
+
+    private Goal goal = Goal.IDLE;
+    private State state = State.IDLE;
+    private double stateStartTime = Timer.getFPGATimestamp();
+
+    /* Transition metrics, indexed by [from][to]. */
+    private final int[][] transitionCounts = new int[states.length][states.length];
+    private final double[][] totalTransitionSeconds = new double[states.length][states.length];
+    private final double[][] maxTransitionSeconds = new double[states.length][states.length];
+    /* Dashboard keys, built up front so publishing does not concatenate strings. */
+    private final String[][] transitionKeys = new String[states.length][states.length];
+    private final String[][] averageTransitionKeys = new String[states.length][states.length];
+    private final String[][] maxTransitionKeys = new String[states.length][states.length];
+
+    public Superstructure(IntakeSubsystem intake, ShooterSubsystem shooter) {
+        this.intake = intake;
+        this.shooter = shooter;
+        for (State from : states) {
+            for (State to : states) {
+                String name = "Superstructure/" + from + " -> " + to;
+                transitionKeys[from.ordinal()][to.ordinal()] = name + " (s)";
+                averageTransitionKeys[from.ordinal()][to.ordinal()] = name + " average (s)";
+                maxTransitionKeys[from.ordinal()][to.ordinal()] = name + " max (s)";
+            }
+        }
+    }
+
+    /**
+     * Sets what the superstructure should do. The state changes on the next loop.
+     * 
+     * @param goal The new goal.
+     */
+    public void setGoal(Goal goal) {
+        this.goal = goal;
+    }
+
+    /**
+     * @return The current goal.
+     */
+    public Goal getGoal() {
+        return goal;
+    }
+
+    /**
+     * @return The current state.
+     */
+    public State getState() {
+        return state;
+    }
+
+    @Override
+    public void periodic() {
+        double now = Timer.getFPGATimestamp();
+        double secondsInState = now - stateStartTime;
+
+        State next = nextState(state, goal, secondsInState >= state.minimumSeconds, shooter.isAtSpeed());
+
+        if (next != state) {
+            recordTransition(state, next, secondsInState);
+            state = next;
+            stateStartTime = now;
+            SmartDashboard.putString("Superstructure/State", state.name());
+        }
+
+        intake.setSpeed(state.intakeSpeed);
+        if (state.shooterOn) {
+            shooter.setSpeed(ShooterConstants.shootingSpeed);
+        } else {
+            shooter.stop();
+        }
+    }
+
+    private void recordTransition(State from, State to, double seconds) {
+        int f = from.ordinal();
+        int t = to.ordinal();
+        transitionCounts[f][t]++;
+        totalTransitionSeconds[f][t] += seconds;
+        maxTransitionSeconds[f][t] = Math.max(maxTransitionSeconds[f][t], seconds);
+        SmartDashboard.putNumber(transitionKeys[f][t], seconds);
+        SmartDashboard.putNumber(averageTransitionKeys[f][t], totalTransitionSeconds[f][t] / transitionCounts[f][t]);
+        SmartDashboard.putNumber(maxTransitionKeys[f][t], maxTransitionSeconds[f][t]);
+    }
+
+    /**
+     * @return How many times the superstructure has gone from one state to another.
+     */
+    public int getTransitionCount(State from, State to) {
+        return transitionCounts[from.ordinal()][to.ordinal()];
+    }
+
+    /**
+     * @return The average time spent in the first state before going to the second, in seconds.
+     */
+    public double getAverageTransitionSeconds(State from, State to) {
+        int count = transitionCounts[from.ordinal()][to.ordinal()];
+        return count == 0 ? 0 : totalTransitionSeconds[from.ordinal()][to.ordinal()] / count;
+    }
+
+    /**
+     * @return The longest time spent in the first state before going to the second, in seconds.
+     */
+    public double getMaxTransitionSeconds(State from, State to) {
+        return maxTransitionSeconds[from.ordinal()][to.ordinal()];
+    }
+}
@@ -0,0 +1,34 @@
+package frc.robot.subsystems.superstructure.commands;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.subsystems.superstructure.Superstructure;
+
+/**
+ * Asks the superstructure to work towards a goal while the command runs, and returns it to idle when
+ * the command ends. The superstructure decides how to get there.
+ */
+public class RequestGoal extends Command {
+    private final Superstructure superstructure;
+    private final Superstructure.Goal goal;
+
+    public RequestGoal(Superstructure superstructure, Superstructure.Goal goal) {
+        this.superstructure = superstructure;
+        this.goal = goal;
+        addRequirements(superstructure);
+    }
+
+    @Override
+    public void initialize() {
+        superstructure.setGoal(goal);
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        superstructure.setGoal(Superstructure.Goal.IDLE);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return false;
+    }
+}
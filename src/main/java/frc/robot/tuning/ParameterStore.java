@@ -0,0 +1,316 @@
+package frc.robot.tuning;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.wpi.first.networktables.DoubleEntry;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Holds every {@link TunableDouble} and keeps them in sync with the tuning file in the deploy
+ * directory and the "Tuning" table in NetworkTables. The file is read the first time a parameter is
+ * registered. Afterwards, a background thread watches the file for changes (for example, after
+ * copying a new file onto the roboRIO with scp), and any value edited on the dashboard is picked
+ * up too. Changes are applied on the main loop in {@link #periodic()}, so listeners never run on
+ * another thread.
+ *
+ * <p>The tuning file has one "name = value" pair per line, and anything after a '#' is ignored. Names
+ * that no parameter uses are reported to the driver station, so typos don't go unnoticed. A
+ * reread only changes the values that are in the file. A copy can leave the file empty or half
+ * written for a moment, and reverting the module offsets and gains to their defaults in the middle
+ * of a match because of that would be far worse than missing a change, so a value removed from the
+ * file keeps its last value until the robot code restarts.
+ */
+public final class ParameterStore {
+    /** Name of the tuning file in the deploy directory. */
+    public static final String fileName = "tuning.txt";
+    /**
+     * How many loops to wait between checking for changes, since tuning does not need to be
+     * instant.
+     */
+    private static final int loopsPerCheck = 5;
+    /**
+     * How long the tuning file has to stay the same size and modification time before it is read,
+     * in milliseconds. The copy is usually done well within this.
+     */
+    private static final long settleMillis = 250;
+
+    private static final List<TunableDouble> parameters = new ArrayList<>();
+    private static final List<DoubleEntry> entries = new ArrayList<>();
+    private static final NetworkTable table = NetworkTableInstance.getDefault().getTable("Tuning");
+    private static Map<String, Double> fileValues = null;
+    /** Values read by the watcher thread, waiting for the main loop to apply them. */
+    private static final AtomicReference<Map<String, Double>> pendingFileValues =
+            new AtomicReference<>();
+    private static boolean watching = false;
+    private static int loopsSinceCheck = 0;
+
+    private ParameterStore() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    /**
+     * Creates a tunable parameter. Should only be called while the robot is starting up, such as
+     * from a static field initializer.
+     * 
+     * @param name The name of the parameter in the tuning file and NetworkTables.
+     * @param defaultValue The value to use if the tuning file does not set one.
+     * @return The parameter.
+     */
+    public static synchronized TunableDouble register(String name, double defaultValue) {
+        if (fileValues == null) {
+            fileValues = readFile(getFile());
+            if (fileValues == null) {
+                fileValues = Map.of();
+            }
+        }
+        TunableDouble parameter = new TunableDouble(name, defaultValue,
+                fileValues.getOrDefault(name, defaultValue));
+        DoubleEntry entry = table.getDoubleTopic(name).getEntry(parameter.get());
+        entry.set(parameter.get());
+        parameters.add(parameter);
+        entries.add(entry);
+        return parameter;
+    }
+
+    /**
+     * Applies any changes from the tuning file or NetworkTables. Must be called every loop from the
+     * main thread.
+     */
+    public static void periodic() {
+        if (!watching) {
+            watching = true;
+            // Every parameter has been registered by now, so names in the file that none of them use
+            // are typos.
+            warnUnknownNames(fileValues);
+            startWatcher();
+        }
+        if (++loopsSinceCheck < loopsPerCheck) {
+            return;
+        }
+        loopsSinceCheck = 0;
+
+        Map<String, Double> fromFile = pendingFileValues.getAndSet(null);
+        if (fromFile != null) {
+            warnUnknownNames(fromFile);
+        }
+        for (int i = 0; i < parameters.size(); i++) {
+            TunableDouble parameter = parameters.get(i);
+            DoubleEntry entry = entries.get(i);
+            if (fromFile != null) {
+                double value = merge(fromFile, parameter.getName(), parameter.get());
+                if (value != parameter.get()) {
+                    entry.set(value);
+                    parameter.set(value);
+                }
+                continue;
+            }
+            parameter.set(entry.get(parameter.get()));
+        }
+    }
+
+    /**
+     * Reports every name in the tuning file that no parameter uses, since a misspelled name would
+     * otherwise do nothing without any sign of why.
+     */
+    private static void warnUnknownNames(Map<String, Double> fromFile) {
+        if (fromFile == null) {
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        for (TunableDouble parameter : parameters) {
+            names.add(parameter.getName());
+        }
+        for (String name : unknownNames(fromFile, names)) {
+            DriverStation.reportWarning("Ignoring '" + name + "' in " + fileName
+                    + " because there is no parameter with that name", false);
+        }
+    }
+
+    /**
+     * @param fromFile The values in the tuning file.
+     * @param registered The names of the registered parameters.
+     * @return The names in the file that are not registered, sorted.
+     */
+    static List<String> unknownNames(Map<String, Double> fromFile, Collection<String> registered) {
+        List<String> unknown = new ArrayList<>();
+        for (String name : fromFile.keySet()) {
+            if (!registered.contains(name)) {
+                unknown.add(name);
+            }
+        }
+        Collections.sort(unknown);
+        return unknown;
+    }
+
+    /**
+     * Decides a parameter's value after the tuning file is reread.
+     * 
+     * @param fromFile The values in the file.
+     * @param name The name of the parameter.
+     * @param currentValue The parameter's value before the reread.
+     * @return The value from the file, or the current value if the file does not set one.
+     */
+    static double merge(Map<String, Double> fromFile, String name, double currentValue) {
+        return fromFile.getOrDefault(name, currentValue);
+    }
+
+    private static Path getFile() {
+        return Filesystem.getDeployDirectory().toPath().resolve(fileName);
+    }
+
+    /**
+     * Watches the deploy directory on a daemon thread, and rereads the tuning file once it has
+     * finished changing.
+     */
+    private static void startWatcher() {
+        Path file = getFile();
+        Path directory = file.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        WatchService watcher;
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            DriverStation.reportWarning("Hot reloading of " + fileName + " is disabled: "
+                    + e.getMessage(), false);
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watcher.take();
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.context() instanceof Path changedFile
+                                && changedFile.getFileName().toString().equals(fileName)) {
+                            changed = true;
+                        }
+                    }
+                    if (changed) {
+                        Map<String, Double> values = readWhenSettled(file);
+                        if (values == null || values.isEmpty()) {
+                            // Most likely caught in the middle of a copy. Keep the values already
+                            // applied, and wait for the next change.
+                            DriverStation.reportWarning("Ignoring " + fileName
+                                    + " because it could not be read or sets no values", false);
+                        } else {
+                            pendingFileValues.set(values);
+                        }
+                    }
+                    if (!key.reset()) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // The robot is shutting down.
+            }
+        }, "ParameterStore");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Waits for the tuning file to stop changing, then reads it. Copying with scp truncates the
+     * file before writing it, so reading as soon as it changes could see it empty or half written.
+     * 
+     * @return The values in the file, or null if it could not be read.
+     */
+    private static Map<String, Double> readWhenSettled(Path file) throws InterruptedException {
+        long lastSize = -1;
+        long lastModified = -1;
+        while (true) {
+            Thread.sleep(settleMillis);
+            long size;
+            long modified;
+            try {
+                size = Files.size(file);
+                modified = Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException e) {
+                // Removed, or in the middle of being replaced.
+                return null;
+            }
+            if (size == lastSize && modified == lastModified) {
+                return readFile(file);
+            }
+            lastSize = size;
+            lastModified = modified;
+        }
+    }
+
+    /**
+     * Reads "name = value" pairs from the tuning file. Bad lines are reported and skipped, so one
+     * typo does not throw away the rest of the file.
+     * 
+     * @return The values in the file, an empty map if there is no file, or null if the file could
+     * not be read.
+     */
+    static Map<String, Double> readFile(Path file) {
+        Map<String, Double> values = new HashMap<>();
+        if (!Files.exists(file)) {
+            return values;
+        }
+        String contents;
+        try {
+            contents = Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            DriverStation.reportError("Failed to read " + file + ": " + e.getMessage(), false);
+            return null;
+        }
+        int lineNumber = 0;
+        int start = 0;
+        while (start < contents.length()) {
+            int end = contents.indexOf('\n', start);
+            if (end < 0) {
+                end = contents.length();
+            }
+            lineNumber++;
+            int comment = contents.indexOf('#', start);
+            int lineEnd = comment >= 0 && comment < end ? comment : end;
+            int equals = contents.indexOf('=', start);
+            if (equals >= 0 && equals < lineEnd) {
+                String name = contents.substring(start, equals).trim();
+                String value = contents.substring(equals + 1, lineEnd).trim();
+                if (name.isEmpty()) {
+                    DriverStation.reportWarning("Ignoring line " + lineNumber + " of " + file
+                            + ": no name", false);
+                    start = end + 1;
+                    continue;
+                }
+                try {
+                    values.put(name, Double.parseDouble(value));
+                } catch (NumberFormatException e) {
+                    DriverStation.reportWarning("Ignoring line " + lineNumber + " of " + file
+                            + ": bad number", false);
+                }
+            } else if (!contents.substring(start, lineEnd).isBlank()) {
+                DriverStation.reportWarning("Ignoring line " + lineNumber + " of " + file
+                        + ": expected name = value", false);
+            }
+            start = end + 1;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,80 @@
+package frc.robot.tuning;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A number that can be changed while the robot is running, through the tuning file or
+ * NetworkTables (see {@link ParameterStore}). Reading it is a plain field read, so it is fine to
+ * call {@link #get()} every loop. Code that caches the value, such as a motor controller's
+ * configuration, should register a listener with {@link #onChange(DoubleConsumer)}. Anything that
+ * does not live as long as the robot code, such as a command, must remove its listener again with
+ * {@link #removeListener(DoubleConsumer)}.
+ */
+public final class TunableDouble {
+    private final String name;
+    private final double defaultValue;
+    /** Written by the main loop and read by any thread. */
+    private volatile double value;
+    private final List<DoubleConsumer> listeners = new ArrayList<>();
+
+    TunableDouble(String name, double defaultValue, double initialValue) {
+        this.name = name;
+        this.defaultValue = defaultValue;
+        this.value = initialValue;
+    }
+
+    /**
+     * @return The current value.
+     */
+    public double get() {
+        return value;
+    }
+
+    /**
+     * @return The name of the parameter, as used in the tuning file and NetworkTables.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The value from Constants.java, used when the tuning file does not set one.
+     */
+    public double getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * Registers a listener that is called on the main loop with the new value whenever it changes.
+     * Listeners must not block.
+     * 
+     * @param listener The listener.
+     */
+    public void onChange(DoubleConsumer listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener registered with {@link #onChange(DoubleConsumer)}.
+     * 
+     * @param listener The same listener object that was registered.
+     */
+    public void removeListener(DoubleConsumer listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the value and notifies the listeners if it changed. Only called from the main loop.
+     */
+    void set(double newValue) {
+        if (Double.compare(newValue, value) == 0) {
+            return;
+        }
+        value = newValue;
+        for (DoubleConsumer listener : listeners) {
+            listener.accept(newValue);
+        }
+    }
+}
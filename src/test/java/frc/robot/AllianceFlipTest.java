@@ -0,0 +1,36 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants.FieldConstants;
+
+class AllianceFlipTest {
+    @Test
+    void turnsPosesHalfATurnAboutTheCenter() {
+        Pose2d red = AllianceFlip.mirror(new Pose2d(3.3, 6.0, Rotation2d.fromDegrees(30)));
+
+        assertEquals(FieldConstants.fieldLengthMeters - 3.3, red.getX(), 1e-9);
+        assertEquals(FieldConstants.fieldWidthMeters - 6.0, red.getY(), 1e-9);
+        assertEquals(-150, red.getRotation().getDegrees(), 1e-9);
+        // Mirroring again gets back to blue.
+        Pose2d blue = AllianceFlip.mirror(red);
+        assertEquals(3.3, blue.getX(), 1e-9);
+        assertEquals(6.0, blue.getY(), 1e-9);
+        assertEquals(30, blue.getRotation().getDegrees(), 1e-9);
+    }
+
+    @Test
+    void mirrorsTheBlueHubOntoTheRedHub() {
+        // The red hub in field_obstacles.txt.
+        Translation2d hub = AllianceFlip.mirror(FieldConstants.blueHubCenter);
+
+        assertTrue(hub.getX() > 11.32 && hub.getX() < 12.51);
+        assertTrue(hub.getY() > 3.44 && hub.getY() < 4.63);
+    }
+}
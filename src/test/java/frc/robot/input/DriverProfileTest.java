@@ -0,0 +1,126 @@
+package frc.robot.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import frc.robot.Constants.OperatorConstants;
+
+class DriverProfileTest {
+    @BeforeAll
+    static void initializeHal() {
+        // Loading errors are reported to the driver station.
+        HAL.initialize(500, 0);
+    }
+
+    /** Writes a profile to a file with the given name in a new temporary directory. */
+    static Path write(String fileName, String text) throws IOException {
+        Path directory = Files.createTempDirectory("driver_profiles");
+        directory.toFile().deleteOnExit();
+        Path file = directory.resolve(fileName);
+        Files.writeString(file, text);
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    @Test
+    void loadsEverySetting() throws IOException {
+        DriverProfile profile = DriverProfile.load(write("alex.txt", """
+                # Comments and blank lines are ignored.
+
+                translationCurve = exponential 2.5
+                rotationCurve = cubic 0.6   # so is anything after a '#'
+                deadband = 0.06
+                normalScale = 0.7
+                turboScale = 0.9
+                precisionScale = 0.2
+                """));
+
+        assertEquals("alex", profile.getName());
+        assertEquals(Math.expm1(2.5 * 0.5) / Math.expm1(2.5), profile.getTranslationCurve().apply(0.5), 1e-12);
+        assertEquals(0.6 * 0.125 + 0.4 * 0.5, profile.getRotationCurve().apply(0.5), 1e-12);
+        assertEquals(0.06, profile.getDeadband());
+        assertEquals(0.7, profile.getNormalScale());
+        assertEquals(0.9, profile.getTurboScale());
+        assertEquals(0.2, profile.getPrecisionScale());
+    }
+
+    @Test
+    void loadRejectsMalformedFiles() throws IOException {
+        Path missingWeight = write("a.txt", "translationCurve = cubic\n");
+        Path notANumber = write("b.txt", "deadband = small\n");
+        Path unknownSetting = write("c.txt", "speed = 1\n");
+        Path noEquals = write("d.txt", "deadband 0.1\n");
+
+        assertThrows(IllegalArgumentException.class, () -> DriverProfile.load(missingWeight));
+        assertThrows(IllegalArgumentException.class, () -> DriverProfile.load(notANumber));
+        assertThrows(IllegalArgumentException.class, () -> DriverProfile.load(unknownSetting));
+        assertThrows(IllegalArgumentException.class, () -> DriverProfile.load(noEquals));
+    }
+
+    @Test
+    void loadRejectsOutOfRangeValues() throws IOException {
+        // Would divide by zero, or invert the sticks, when rescaling past the deadband.
+        Path fullDeadband = write("a.txt", "deadband = 1\n");
+        Path wideDeadband = write("b.txt", "deadband = 1.5\n");
+        Path negativeDeadband = write("c.txt", "deadband = -0.05\n");
+        Path negativeScale = write("d.txt", "normalScale = -0.5\n");
+        Path largeScale = write("e.txt", "turboScale = 1.2\n");
+        Path notANumberScale = write("f.txt", "precisionScale = NaN\n");
+
+        assertThrows(IllegalArgumentException.class, () -> DriverProfile.load(fullDeadband));
+        assertThrows(IllegalArgumentException.class, () -> DriverProfile.load(wideDeadband));
+        assertThrows(IllegalArgumentException.class, () -> DriverProfile.load(negativeDeadband));
+        assertThrows(IllegalArgumentException.class, () -> DriverProfile.load(negativeScale));
+        assertThrows(IllegalArgumentException.class, () -> DriverProfile.load(largeScale));
+        assertThrows(IllegalArgumentException.class, () -> DriverProfile.load(notANumberScale));
+        // The limits themselves are fine.
+        DriverProfile limits = DriverProfile.load(write("g.txt", "deadband = 0\nturboScale = 1\nprecisionScale = 0\n"));
+        assertEquals(0.0, limits.getDeadband());
+        assertEquals(1.0, limits.getTurboScale());
+        assertEquals(0.0, limits.getPrecisionScale());
+    }
+
+    @Test
+    void outOfRangeProfileFallsBackToTheDefaults() throws IOException {
+        DriverProfile profile = DriverProfile.loadOrDefault(write("jo.txt", """
+                translationCurve = exponential 2.5
+                deadband = 1
+                """));
+
+        assertEquals("jo", profile.getName());
+        assertEquals(OperatorConstants.driveDeadband, profile.getDeadband());
+        assertEquals(0.5, profile.getTranslationCurve().apply(0.5), 1e-12);
+    }
+
+    @Test
+    void malformedProfileFallsBackToLinear() throws IOException {
+        DriverProfile profile = DriverProfile.loadOrDefault(write("sam.txt", """
+                translationCurve = exponential 2.5
+                rotationCurve = cubic
+                """));
+
+        // The driver still gets a profile under their name, with none of the broken file's settings.
+        assertEquals("sam", profile.getName());
+        for (double x = -1; x <= 1; x += 0.125) {
+            assertEquals(x, profile.getTranslationCurve().apply(x), 1e-12);
+            assertEquals(x, profile.getRotationCurve().apply(x), 1e-12);
+        }
+        assertEquals(OperatorConstants.driveDeadband, profile.getDeadband());
+    }
+
+    @Test
+    void missingFileFallsBackToLinear() {
+        DriverProfile profile = DriverProfile.loadOrDefault(Path.of("does_not_exist", "kai.txt"));
+
+        assertEquals("kai", profile.getName());
+        assertEquals(0.3, profile.getTranslationCurve().apply(0.3), 1e-12);
+    }
+}
@@ -0,0 +1,109 @@
+package frc.robot.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+
+class InputShaperTest {
+    private static final double deadband = 0.1;
+
+    private InputShaper shaper;
+
+    @BeforeAll
+    static void initializeHal() {
+        // The profile chooser is published to the dashboard.
+        HAL.initialize(500, 0);
+    }
+
+    @BeforeEach
+    void createShaper() throws IOException {
+        shaper = new InputShaper(Path.of("does_not_exist"));
+        shaper.setProfile(DriverProfile.load(DriverProfileTest.write("test.txt", """
+                translationCurve = linear
+                rotationCurve = linear
+                deadband = 0.1
+                normalScale = 0.5
+                turboScale = 1.0
+                precisionScale = 0.25
+                """)));
+    }
+
+    private double translationMagnitude() {
+        return Math.hypot(shaper.getXSpeed(), shaper.getYSpeed());
+    }
+
+    @Test
+    void deadbandZeroesInputsInsideTheRadius() {
+        // Each axis alone is well inside the deadband, and so is the diagonal.
+        shaper.update(0.06, -0.07, 0.09, false, false);
+        assertEquals(0, shaper.getXSpeed());
+        assertEquals(0, shaper.getYSpeed());
+        assertEquals(0, shaper.getRot());
+
+        shaper.update(0, deadband, -deadband, true, false);
+        assertEquals(0, translationMagnitude());
+        assertEquals(0, shaper.getRot());
+    }
+
+    @Test
+    void deadbandIsContinuousAtItsEdge() {
+        double angle = Math.toRadians(30);
+        for (double distance : new double[] { 1e-9, 1e-6, 1e-3 }) {
+            double magnitude = deadband + distance;
+            shaper.update(magnitude * Math.cos(angle), magnitude * Math.sin(angle), magnitude, false, false);
+            // The output grows from zero at the edge at the rate of the rescaled stick.
+            double expected = 0.5 * distance / (1 - deadband);
+            assertEquals(expected, translationMagnitude(), 1e-12);
+            assertEquals(-expected, shaper.getRot(), 1e-12);
+        }
+    }
+
+    @Test
+    void keepsTheStickDirection() {
+        // Pushing forward and left on the stick drives forward and left.
+        shaper.update(-0.3, -0.4, 0, false, false);
+        assertTrue(shaper.getXSpeed() > 0);
+        assertTrue(shaper.getYSpeed() > 0);
+        assertEquals(0.4 / 0.3, shaper.getXSpeed() / shaper.getYSpeed(), 1e-12);
+    }
+
+    @Test
+    void clampsDiagonalsToFullSpeed() {
+        // A square gated stick reaches sqrt(2) in the corners.
+        shaper.update(1, -1, 1.2, true, false);
+        assertEquals(1, translationMagnitude(), 1e-12);
+        assertEquals(Math.abs(shaper.getXSpeed()), Math.abs(shaper.getYSpeed()), 1e-12);
+        assertEquals(-1, shaper.getRot(), 1e-12);
+
+        shaper.update(-0.9, 0.9, 0, false, false);
+        assertEquals(0.5, translationMagnitude(), 1e-12);
+    }
+
+    @Test
+    void turboAndPrecisionScaleFullDeflection() {
+        shaper.update(0, -1, -1, false, false);
+        assertEquals(0.5, shaper.getXSpeed(), 1e-12);
+        assertEquals(0.5, shaper.getRot(), 1e-12);
+
+        shaper.update(0, -1, -1, true, false);
+        assertEquals(1.0, shaper.getXSpeed(), 1e-12);
+        assertEquals(1.0, shaper.getRot(), 1e-12);
+
+        shaper.update(0, -1, -1, false, true);
+        assertEquals(0.25, shaper.getXSpeed(), 1e-12);
+        assertEquals(0.25, shaper.getRot(), 1e-12);
+
+        // Precision wins over turbo.
+        shaper.update(0, -1, -1, true, true);
+        assertEquals(0.25, shaper.getXSpeed(), 1e-12);
+        assertEquals(0.25, shaper.getRot(), 1e-12);
+    }
+}
@@ -0,0 +1,72 @@
+package frc.robot.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class ResponseCurveTest {
+    private static double cubic(double weight, double x) {
+        return weight * x * x * x + (1 - weight) * x;
+    }
+
+    private static double exponential(double k, double x) {
+        return Math.expm1(k * x) / Math.expm1(k);
+    }
+
+    @Test
+    void lookupMatchesDirectEvaluationAtSamplePoints() {
+        ResponseCurve cubic = ResponseCurve.cubic(0.6);
+        ResponseCurve exponential = ResponseCurve.exponential(2.5);
+        for (int i = 0; i <= 256; i++) {
+            double x = i / 256.0;
+            assertEquals(cubic(0.6, x), cubic.apply(x), 1e-12);
+            assertEquals(exponential(2.5, x), exponential.apply(x), 1e-12);
+        }
+    }
+
+    @Test
+    void lookupIsCloseToDirectEvaluationBetweenSamplePoints() {
+        ResponseCurve cubic = ResponseCurve.cubic(0.6);
+        ResponseCurve exponential = ResponseCurve.exponential(2.5);
+        for (double x = 0.0013; x < 1; x += 0.0371) {
+            assertEquals(cubic(0.6, x), cubic.apply(x), 1e-4);
+            assertEquals(exponential(2.5, x), exponential.apply(x), 1e-4);
+        }
+    }
+
+    @Test
+    void mirrorsNegativeInputsAndClampsBeyondFullDeflection() {
+        ResponseCurve curve = ResponseCurve.exponential(2.5);
+        assertEquals(-curve.apply(0.42), curve.apply(-0.42), 1e-12);
+        assertEquals(1, curve.apply(1.3), 1e-12);
+        assertEquals(-1, curve.apply(-1.3), 1e-12);
+        assertEquals(0, curve.apply(0), 1e-12);
+    }
+
+    @Test
+    void pointsAreInterpolatedEvenly() {
+        ResponseCurve curve = ResponseCurve.fromPoints(0, 0.2, 1);
+        assertEquals(0.2, curve.apply(0.5), 1e-12);
+        assertEquals(0.1, curve.apply(0.25), 1e-12);
+        assertEquals(0.6, curve.apply(0.75), 1e-12);
+    }
+
+    @Test
+    void parsesEveryCurve() {
+        assertEquals(0.5, ResponseCurve.parse("linear").apply(0.5), 1e-12);
+        assertEquals(cubic(0.3, 0.5), ResponseCurve.parse("cubic 0.3").apply(0.5), 1e-12);
+        assertEquals(exponential(2, 0.5), ResponseCurve.parse(" exponential   2 ").apply(0.5), 1e-12);
+        assertEquals(0.2, ResponseCurve.parse("points 0 0.2 1").apply(0.5), 1e-12);
+        // Exponential curves that are not steep are linear.
+        assertEquals(0.5, ResponseCurve.parse("exponential 0").apply(0.5), 1e-12);
+    }
+
+    @Test
+    void rejectsMalformedCurves() {
+        assertThrows(IllegalArgumentException.class, () -> ResponseCurve.parse("cubic"));
+        assertThrows(IllegalArgumentException.class, () -> ResponseCurve.parse("cubic heavy"));
+        assertThrows(IllegalArgumentException.class, () -> ResponseCurve.parse("points 0"));
+        assertThrows(IllegalArgumentException.class, () -> ResponseCurve.parse("quadratic 2"));
+    }
+}
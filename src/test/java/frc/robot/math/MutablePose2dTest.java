@@ -0,0 +1,66 @@
+package frc.robot.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+
+class MutablePose2dTest {
+    private static final double epsilon = 1e-9;
+
+    @Test
+    void expMatchesWpilib() {
+        Random random = new Random(3324);
+        for (int i = 0; i < 1000; i++) {
+            Pose2d start = new Pose2d(random.nextDouble() * 16, random.nextDouble() * 8,
+                    new Rotation2d((random.nextDouble() - 0.5) * 2 * Math.PI));
+            double dx = (random.nextDouble() - 0.5) * 0.2;
+            double dy = (random.nextDouble() - 0.5) * 0.2;
+            // Include tiny turns, which take the small angle branch.
+            double dtheta = i % 4 == 0 ? (random.nextDouble() - 0.5) * 1e-10 : (random.nextDouble() - 0.5) * 2;
+
+            Pose2d expected = start.exp(new Twist2d(dx, dy, dtheta));
+            MutablePose2d pose = new MutablePose2d().set(start).exp(dx, dy, dtheta);
+            assertPoseEquals(expected, pose);
+        }
+    }
+
+    @Test
+    void integratedOdometryMatchesWpilib() {
+        // A full match of odometry updates, so any drift between the two would add up.
+        Random random = new Random(971);
+        Pose2d expected = Pose2d.kZero;
+        MutablePose2d pose = new MutablePose2d();
+        for (int i = 0; i < 7500; i++) {
+            double dx = random.nextDouble() * 0.1;
+            double dy = (random.nextDouble() - 0.5) * 0.05;
+            double dtheta = (random.nextDouble() - 0.5) * 0.25;
+            expected = expected.exp(new Twist2d(dx, dy, dtheta));
+            pose.exp(dx, dy, dtheta);
+        }
+        assertEquals(expected.getX(), pose.getX(), 1e-6);
+        assertEquals(expected.getY(), pose.getY(), 1e-6);
+        assertEquals(0, MathUtil.angleModulus(expected.getRotation().getRadians() - pose.getRotation().getRadians()),
+                1e-6);
+    }
+
+    @Test
+    void toPose2dCopiesThePose() {
+        MutablePose2d pose = new MutablePose2d().set(1, 2, 3);
+        Pose2d copy = pose.toPose2d();
+        assertPoseEquals(copy, pose);
+    }
+
+    private static void assertPoseEquals(Pose2d expected, MutablePose2d actual) {
+        assertEquals(expected.getX(), actual.getX(), epsilon);
+        assertEquals(expected.getY(), actual.getY(), epsilon);
+        assertEquals(expected.getRotation().getCos(), actual.getRotation().getCos(), epsilon);
+        assertEquals(expected.getRotation().getSin(), actual.getRotation().getSin(), epsilon);
+    }
+}
@@ -0,0 +1,53 @@
+package frc.robot.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+
+class MutableRotation2dTest {
+    private static final double epsilon = 1e-9;
+
+    @Test
+    void keepsAnglesWithinMinusPiToPi() {
+        assertEquals(-Math.PI, new MutableRotation2d(Math.PI).getRadians(), epsilon);
+        assertEquals(-Math.PI, new MutableRotation2d().setComponents(-1, 0).getRadians(), epsilon);
+        assertEquals(-Math.PI, new MutableRotation2d().set(Rotation2d.kPi).getRadians(), epsilon);
+        assertEquals(Math.PI / 2, new MutableRotation2d(5 * Math.PI / 2).getRadians(), epsilon);
+    }
+
+    @Test
+    void rotateByMatchesWpilib() {
+        Random random = new Random(3324);
+        MutableRotation2d rotation = new MutableRotation2d();
+        MutableRotation2d other = new MutableRotation2d();
+        for (int i = 0; i < 1000; i++) {
+            double a = (random.nextDouble() - 0.5) * 4 * Math.PI;
+            double b = (random.nextDouble() - 0.5) * 4 * Math.PI;
+            Rotation2d expected = new Rotation2d(a).rotateBy(new Rotation2d(b));
+            rotation.setRadians(a).rotateBy(other.setRadians(b));
+
+            assertEquals(expected.getCos(), rotation.getCos(), epsilon);
+            assertEquals(expected.getSin(), rotation.getSin(), epsilon);
+            assertEquals(Math.cos(rotation.getRadians()), rotation.getCos(), epsilon);
+            assertEquals(Math.sin(rotation.getRadians()), rotation.getSin(), epsilon);
+        }
+    }
+
+    @Test
+    void toRotation2dOnlyCopiesWhenTheAngleChanges() {
+        MutableRotation2d rotation = new MutableRotation2d(1.0);
+        Rotation2d first = rotation.toRotation2d();
+        assertSame(first, rotation.toRotation2d());
+
+        rotation.setRadians(1.5);
+        Rotation2d second = rotation.toRotation2d();
+        assertNotSame(first, second);
+        assertEquals(1.5, second.getRadians(), epsilon);
+    }
+}
@@ -0,0 +1,111 @@
+package frc.robot.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+class SwerveModuleStateArrayTest {
+    private static final double epsilon = 1e-9;
+    /** A rectangular chassis, so the x and y terms of the kinematics cannot cancel by accident. */
+    private static final Translation2d[] locations = {
+            new Translation2d(0.35, 0.28),
+            new Translation2d(0.35, -0.28),
+            new Translation2d(-0.35, 0.28),
+            new Translation2d(-0.35, -0.28) };
+
+    @Test
+    void inverseKinematicsMatchWpilib() {
+        SwerveDriveKinematics kinematics = new SwerveDriveKinematics(locations);
+        SwerveModuleStateArray states = new SwerveModuleStateArray(locations);
+        Random random = new Random(3324);
+        for (int i = 0; i < 1000; i++) {
+            double vx = (random.nextDouble() - 0.5) * 10;
+            double vy = (random.nextDouble() - 0.5) * 10;
+            double omega = (random.nextDouble() - 0.5) * 4 * Math.PI;
+            SwerveModuleState[] expected = kinematics.toSwerveModuleStates(new ChassisSpeeds(vx, vy, omega));
+            states.setFromChassisSpeeds(vx, vy, omega);
+            assertStatesEqual(expected, states);
+        }
+    }
+
+    @Test
+    void stoppingKeepsTheModuleAnglesLikeWpilib() {
+        SwerveDriveKinematics kinematics = new SwerveDriveKinematics(locations);
+        SwerveModuleStateArray states = new SwerveModuleStateArray(locations);
+        kinematics.toSwerveModuleStates(new ChassisSpeeds(1, 2, 3));
+        states.setFromChassisSpeeds(1, 2, 3);
+
+        SwerveModuleState[] expected = kinematics.toSwerveModuleStates(new ChassisSpeeds());
+        states.setFromChassisSpeeds(0, 0, 0);
+        assertStatesEqual(expected, states);
+    }
+
+    @Test
+    void desaturateMatchesWpilib() {
+        SwerveDriveKinematics kinematics = new SwerveDriveKinematics(locations);
+        SwerveModuleStateArray states = new SwerveModuleStateArray(locations);
+        Random random = new Random(971);
+        for (int i = 0; i < 1000; i++) {
+            double vx = (random.nextDouble() - 0.5) * 10;
+            double vy = (random.nextDouble() - 0.5) * 10;
+            double omega = (random.nextDouble() - 0.5) * 4 * Math.PI;
+            SwerveModuleState[] expected = kinematics.toSwerveModuleStates(new ChassisSpeeds(vx, vy, omega));
+            SwerveDriveKinematics.desaturateWheelSpeeds(expected, 4.8);
+            states.setFromChassisSpeeds(vx, vy, omega);
+            states.desaturate(4.8);
+            assertStatesEqual(expected, states);
+        }
+    }
+
+    @Test
+    void forwardKinematicsMatchWpilib() {
+        SwerveDriveKinematics kinematics = new SwerveDriveKinematics(locations);
+        SwerveModuleStateArray states = new SwerveModuleStateArray(locations);
+        SwerveModuleState[] wpilibStates = new SwerveModuleState[locations.length];
+        ChassisSpeeds actual = new ChassisSpeeds();
+        Random random = new Random(254);
+        for (int i = 0; i < 1000; i++) {
+            // Module states that do not agree with each other, so the least squares fit matters.
+            for (int module = 0; module < locations.length; module++) {
+                double speed = (random.nextDouble() - 0.5) * 10;
+                double angle = (random.nextDouble() - 0.5) * 2 * Math.PI;
+                wpilibStates[module] = new SwerveModuleState(speed, new Rotation2d(angle));
+                states.set(module, speed, angle);
+            }
+            ChassisSpeeds expected = kinematics.toChassisSpeeds(wpilibStates);
+            states.toChassisSpeeds(actual);
+            assertEquals(expected.vxMetersPerSecond, actual.vxMetersPerSecond, 1e-6);
+            assertEquals(expected.vyMetersPerSecond, actual.vyMetersPerSecond, 1e-6);
+            assertEquals(expected.omegaRadiansPerSecond, actual.omegaRadiansPerSecond, 1e-6);
+        }
+    }
+
+    @Test
+    void copyToWritesWpilibStates() {
+        SwerveModuleStateArray states = new SwerveModuleStateArray(locations);
+        states.setFromChassisSpeeds(1, -2, 0.5);
+        SwerveModuleState[] copy = new SwerveModuleState[locations.length];
+        for (int module = 0; module < copy.length; module++) {
+            copy[module] = new SwerveModuleState();
+        }
+        states.copyTo(copy);
+        assertStatesEqual(copy, states);
+    }
+
+    private static void assertStatesEqual(SwerveModuleState[] expected, SwerveModuleStateArray actual) {
+        assertEquals(expected.length, actual.size());
+        for (int module = 0; module < expected.length; module++) {
+            assertEquals(expected[module].speedMetersPerSecond, actual.getSpeed(module), epsilon);
+            assertEquals(expected[module].angle.getCos(), actual.getAngle(module).getCos(), epsilon);
+            assertEquals(expected[module].angle.getSin(), actual.getAngle(module).getSin(), epsilon);
+        }
+    }
+}
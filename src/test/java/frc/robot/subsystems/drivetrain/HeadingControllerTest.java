@@ -0,0 +1,90 @@
+package frc.robot.subsystems.drivetrain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import frc.robot.Constants.DriveConstants;
+
+class HeadingControllerTest {
+    private static final double settleSpeed = DriveConstants.headingHoldSettleSpeed;
+    private static final double deadband = DriveConstants.headingDeadband;
+
+    @BeforeAll
+    static void initializeHal() {
+        // The theta gain is a tunable, which publishes to NetworkTables.
+        HAL.initialize(500, 0);
+    }
+
+    @Test
+    void holdsTheHeadingOnlyOnceTheRobotHasSettled() {
+        HeadingController controller = new HeadingController();
+        // The driver lets go of the stick while the robot is still turning.
+        assertEquals(0, controller.calculate(0, 0.5, 2 * settleSpeed), 0);
+        assertFalse(controller.isActive());
+        assertEquals(0, controller.calculate(0, 0.6, 1.01 * settleSpeed), 0);
+        assertFalse(controller.isActive());
+
+        // The heading it slows down below the settle speed at is the one that is held.
+        controller.calculate(0, 0.65, 0.5 * settleSpeed);
+        assertTrue(controller.isActive());
+        assertEquals(0.65, controller.getTargetRadians(), 1e-9);
+        // Speeding up again, such as being pushed, does not move the held heading.
+        controller.calculate(0, 0.7, 2 * settleSpeed);
+        assertEquals(0.65, controller.getTargetRadians(), 1e-9);
+    }
+
+    @Test
+    void turningClearsTheHeldHeading() {
+        HeadingController controller = new HeadingController();
+        controller.calculate(0, 1.0, 0);
+        assertTrue(controller.isActive());
+
+        // The driver's rotation passes straight through.
+        assertEquals(0.3, controller.calculate(0.3, 1.0, 0), 0);
+        assertFalse(controller.isActive());
+        // Letting go holds the new heading, not the old one.
+        controller.calculate(0, 1.5, 0);
+        assertEquals(1.5, controller.getTargetRadians(), 1e-9);
+    }
+
+    @Test
+    void turningCancelsASnap() {
+        HeadingController controller = new HeadingController();
+        controller.snapTo(Math.PI / 2);
+        assertTrue(controller.isActive());
+
+        assertEquals(-0.5, controller.calculate(-0.5, 0, 0), 0);
+        assertFalse(controller.isActive());
+    }
+
+    @Test
+    void doesNotCorrectInsideTheDeadband() {
+        HeadingController controller = new HeadingController();
+        controller.calculate(0, 0, 0);
+
+        assertEquals(0, controller.calculate(0, 0.5 * deadband, 0), 0);
+        assertEquals(0, controller.calculate(0, -0.5 * deadband, 0), 0);
+        // Outside the deadband, it turns back towards the held heading.
+        assertTrue(controller.calculate(0, 10 * deadband, 0) < 0);
+    }
+
+    @Test
+    void snapsTheShortWayAcrossTheWrap() {
+        HeadingController controller = new HeadingController();
+        controller.snapTo(Math.toRadians(-179));
+
+        // From 179 degrees, -179 degrees is 2 degrees counterclockwise, not 358 degrees clockwise.
+        double rotation = controller.calculate(0, Math.toRadians(179), 0);
+        assertTrue(rotation > 0);
+        assertEquals(Math.toRadians(-179), controller.getTargetRadians(), 1e-9);
+        // Snapping to 181 degrees is the same heading.
+        controller.snapTo(Math.toRadians(181));
+        assertEquals(Math.toRadians(-179), controller.getTargetRadians(), 1e-9);
+        assertTrue(controller.calculate(0, Math.toRadians(179), 0) > 0);
+    }
+}
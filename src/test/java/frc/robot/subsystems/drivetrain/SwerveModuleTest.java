@@ -0,0 +1,32 @@
+package frc.robot.subsystems.drivetrain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+class SwerveModuleTest {
+    private static final double epsilon = 1e-9;
+
+    @Test
+    void optimizeMatchesWpilib() {
+        Random random = new Random(3324);
+        for (int i = 0; i < 10000; i++) {
+            double desired = (random.nextDouble() - 0.5) * 4 * Math.PI;
+            double current = (random.nextDouble() - 0.5) * 4 * Math.PI;
+            SwerveModuleState expected = new SwerveModuleState(1, new Rotation2d(desired));
+            expected.optimize(new Rotation2d(current));
+
+            boolean reverse = SwerveModule.shouldReverse(desired, current);
+            double speed = reverse ? -1 : 1;
+            double angle = reverse ? desired + Math.PI : desired;
+            assertEquals(expected.speedMetersPerSecond, speed, epsilon);
+            assertEquals(expected.angle.getCos(), Math.cos(angle), epsilon);
+            assertEquals(expected.angle.getSin(), Math.sin(angle), epsilon);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package frc.robot.subsystems.drivetrain.characterization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.controller.LinearQuadraticRegulator;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+
+class CharacterizationFitterTest {
+    private static final double samplePeriod = 0.01;
+    private static final double simulationPeriod = 0.0001;
+
+    @Test
+    void recoversDrivingFeedForward() {
+        List<double[]> rows = new ArrayList<>();
+        simulateRoutine(rows, DriveCharacterization.Mechanism.DRIVING.ordinal(), 0.15, 2.4, 0.35, 0);
+        double[] gains = CharacterizationFitter.fitFeedForward(rows, DriveCharacterization.Mechanism.DRIVING.ordinal());
+
+        assertNotNull(gains);
+        assertEquals(0.15, gains[0], 0.005);
+        assertEquals(2.4, gains[1], 0.01);
+        assertEquals(0.35, gains[2], 0.01);
+        assertTrue(gains[3] > 0.999);
+    }
+
+    @Test
+    void recoversFeedForwardFromNoisyLog() {
+        List<double[]> rows = new ArrayList<>();
+        simulateRoutine(rows, DriveCharacterization.Mechanism.TURNING.ordinal(), 0.3, 0.6, 0.05, 0.05);
+        double[] gains = CharacterizationFitter.fitFeedForward(rows, DriveCharacterization.Mechanism.TURNING.ordinal());
+
+        assertNotNull(gains);
+        assertEquals(0.3, gains[0], 0.02);
+        assertEquals(0.6, gains[1], 0.02);
+        assertEquals(0.05, gains[2], 0.01);
+    }
+
+    @Test
+    void onlyFitsTheRequestedMechanism() {
+        List<double[]> rows = new ArrayList<>();
+        simulateRoutine(rows, DriveCharacterization.Mechanism.DRIVING.ordinal(), 0.15, 2.4, 0.35, 0);
+        simulateRoutine(rows, DriveCharacterization.Mechanism.TURNING.ordinal(), 0.3, 0.6, 0.05, 0);
+        double[] driving = CharacterizationFitter.fitFeedForward(rows,
+                DriveCharacterization.Mechanism.DRIVING.ordinal());
+        double[] turning = CharacterizationFitter.fitFeedForward(rows,
+                DriveCharacterization.Mechanism.TURNING.ordinal());
+
+        assertEquals(2.4, driving[1], 0.01);
+        assertEquals(0.6, turning[1], 0.01);
+    }
+
+    @Test
+    void returnsNullWithoutEnoughSamples() {
+        List<double[]> rows = new ArrayList<>();
+        assertNull(CharacterizationFitter.fitFeedForward(rows, 0));
+        // A mechanism that never moved only has samples below the minimum velocity.
+        for (int i = 0; i < 100; i++) {
+            rows.add(new double[] { 0, 0, i * samplePeriod, 0.1, 0, 0 });
+        }
+        assertNull(CharacterizationFitter.fitFeedForward(rows, 0));
+    }
+
+    @Test
+    void velocityGainMatchesWpilib() {
+        double kV = 2.4;
+        double kA = 0.35;
+        var plant = LinearSystemId.identifyVelocitySystem(kV, kA);
+        var regulator = new LinearQuadraticRegulator<>(plant,
+                VecBuilder.fill(CharacterizationFitter.maxDrivingVelocityError),
+                VecBuilder.fill(CharacterizationFitter.maxControlEffortVolts),
+                CharacterizationFitter.sparkLoopPeriod);
+        regulator.latencyCompensate(plant, CharacterizationFitter.sparkLoopPeriod,
+                CharacterizationFitter.sparkVelocityDelay);
+        double expected = regulator.getK().get(0, 0);
+
+        assertEquals(expected, CharacterizationFitter.velocityGain(kV, kA), 1e-4 * Math.abs(expected));
+    }
+
+    @Test
+    void positionGainsMatchWpilib() {
+        double kV = 0.6;
+        double kA = 0.05;
+        var plant = LinearSystemId.identifyPositionSystem(kV, kA);
+        var regulator = new LinearQuadraticRegulator<>(plant,
+                VecBuilder.fill(CharacterizationFitter.maxTurningPositionError,
+                        CharacterizationFitter.maxTurningVelocityError),
+                VecBuilder.fill(CharacterizationFitter.maxControlEffortVolts),
+                CharacterizationFitter.sparkLoopPeriod);
+        double[] gains = CharacterizationFitter.positionGains(kV, kA);
+
+        double expectedKp = regulator.getK().get(0, 0);
+        double expectedKd = regulator.getK().get(0, 1);
+        assertEquals(expectedKp, gains[0], 1e-4 * Math.abs(expectedKp));
+        assertEquals(expectedKd, gains[1], 1e-4 * Math.abs(expectedKd));
+    }
+
+    /**
+     * Simulates V = kS * sgn(v) + kV * v + kA * a through the same tests as
+     * {@link DriveCharacterization}, and appends the samples in the log format.
+     */
+    private static void simulateRoutine(List<double[]> rows, int mechanism, double kS, double kV, double kA,
+            double voltageNoise) {
+        Random random = new Random(971);
+        double time = 0;
+        for (DriveCharacterization.Test test : DriveCharacterization.Test.values()) {
+            boolean quasistatic = test.name().startsWith("QUASISTATIC");
+            double direction = test.name().endsWith("FORWARD") ? 1 : -1;
+            double duration = quasistatic ? 7.0 : 2.0;
+            double position = 0;
+            double velocity = 0;
+            double elapsed = 0;
+            int steps = (int) Math.round(samplePeriod / simulationPeriod);
+            while (elapsed < duration) {
+                double volts = direction * (quasistatic ? 1.0 * elapsed : 7.0);
+                rows.add(new double[] { mechanism, test.ordinal(), time + elapsed,
+                        volts + voltageNoise * random.nextGaussian(), position, velocity });
+                for (int i = 0; i < steps; i++) {
+                    double t = elapsed + i * simulationPeriod;
+                    double u = direction * (quasistatic ? 1.0 * t : 7.0);
+                    // Static friction holds the mechanism until the voltage overcomes it.
+                    double friction = velocity != 0 ? kS * Math.signum(velocity)
+                            : Math.abs(u) > kS ? kS * Math.signum(u) : u;
+                    double acceleration = (u - friction - kV * velocity) / kA;
+                    velocity += acceleration * simulationPeriod;
+                    position += velocity * simulationPeriod;
+                }
+                elapsed += samplePeriod;
+            }
+            time += duration + 1.5;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package frc.robot.subsystems.drivetrain.commands;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.Constants.AutoConstants;
+import frc.robot.Constants.PathPlanningConstants;
+import frc.robot.Constants.SwerveModuleConstants;
+import frc.robot.subsystems.drivetrain.planning.FieldMap;
+import frc.robot.subsystems.drivetrain.planning.PathPlanner;
+import frc.robot.subsystems.drivetrain.planning.PlannedPath;
+
+class DriveToPoseTest {
+    private static final double loopPeriod = TimedRobot.kDefaultPeriod;
+
+    /**
+     * Drives a straight path of the given length with {@link DriveToPose#approachSpeed}, with the
+     * modules following the commanded speed with the same lag as in simulation.
+     * 
+     * @return The time taken to come within the goal tolerance, or infinity if it takes longer than
+     * the limit.
+     */
+    private static double timeToGoal(double pathLength, double translationKp, double limitSeconds) {
+        double error = pathLength;
+        double commandedSpeed = 0;
+        double velocity = 0;
+        for (double time = 0; time < limitSeconds; time += loopPeriod) {
+            if (Math.abs(error) < PathPlanningConstants.goalToleranceMeters) {
+                return time;
+            }
+            commandedSpeed = DriveToPose.approachSpeed(Math.abs(error), commandedSpeed, translationKp);
+            velocity += (Math.copySign(commandedSpeed, error) - velocity)
+                    * (1 - Math.exp(-loopPeriod / SwerveModuleConstants.simulatedDrivingTimeConstant));
+            error -= velocity * loopPeriod;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    @Test
+    void autoDriveReachesTheShootingPoseBeforeItsTimeout() throws IOException {
+        FieldMap map = FieldMap.load(Path.of("src", "main", "deploy", PathPlanningConstants.fieldMapFile));
+        PathPlanner planner = new PathPlanner(map, 1, PathPlanningConstants.cacheStartQuantizationMeters);
+        Pose2d start = AutoConstants.blueStartingPose;
+        Pose2d goal = PathPlanningConstants.blueShootingPose;
+        PlannedPath path = planner.plan(start.getX(), start.getY(), goal.getX(), goal.getY());
+        assertNotNull(path);
+
+        // The default gain, as in Autos.shootPreload() unless it has been tuned.
+        double length = path.getRemainingLength(0);
+        double timeout = DriveToPose.timeoutSeconds(length, AutoConstants.kPXController);
+        assertTrue(timeToGoal(length, AutoConstants.kPXController, timeout) < timeout);
+    }
+
+    @Test
+    void timeoutCoversAnyGainAndLength() {
+        for (double translationKp : new double[] { 0, 0.5, 1, 2, 5, 20 }) {
+            for (double length : new double[] { 0.1, 0.5, 1, 3, 8 }) {
+                double timeout = DriveToPose.timeoutSeconds(length, translationKp);
+                // The margin is meant for turning to the goal heading too, so don't use all of it up.
+                double time = timeToGoal(length, translationKp, timeout);
+                assertTrue(time < timeout - PathPlanningConstants.driveTimeoutMarginSeconds / 2,
+                        "kP " + translationKp + ", length " + length + ": " + time + " s of " + timeout + " s");
+            }
+        }
+    }
+
+    @Test
+    void doesNotCreepUpOnTheGoal() {
+        // With only the proportional gain, the last 2 meters would take ln(2 / 0.05) = 3.7 seconds.
+        assertTrue(timeToGoal(2, 1, 10) < 3.2);
+    }
+}
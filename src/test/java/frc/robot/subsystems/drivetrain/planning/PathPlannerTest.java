@@ -0,0 +1,191 @@
+package frc.robot.subsystems.drivetrain.planning;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+class PathPlannerTest {
+    private static final double startQuantization = 0.5;
+
+    /**
+     * Writes a field map to a temporary file and loads it. The field is 4 x 3 meters with 0.1 meter
+     * cells, and obstacles are not grown.
+     */
+    private static FieldMap load(String... obstacles) throws IOException {
+        return loadWithRobotRadius(0, obstacles);
+    }
+
+    /**
+     * Like {@link #load(String...)}, but grows the obstacles and walls by the robot's radius.
+     */
+    private static FieldMap loadWithRobotRadius(double radius, String... obstacles) throws IOException {
+        Path file = Files.createTempFile("field", ".txt");
+        file.toFile().deleteOnExit();
+        StringBuilder text = new StringBuilder("field 4 3\ncell 0.1\nrobot ").append(radius).append('\n');
+        for (String obstacle : obstacles) {
+            text.append("rect ").append(obstacle).append('\n');
+        }
+        Files.writeString(file, text);
+        return FieldMap.load(file);
+    }
+
+    /** Checks that the path starts and ends in the right places and never drives through an obstacle. */
+    private static void assertDrivable(FieldMap map, PlannedPath path, double startX, double startY, double goalX,
+            double goalY) {
+        assertNotNull(path);
+        int last = path.size() - 1;
+        assertEquals(startX, path.getX(0), 1e-9);
+        assertEquals(startY, path.getY(0), 1e-9);
+        assertEquals(goalX, path.getX(last), 1e-9);
+        assertEquals(goalY, path.getY(last), 1e-9);
+        for (int i = 0; i < last; i++) {
+            assertTrue(map.hasLineOfSight(path.getX(i), path.getY(i), path.getX(i + 1), path.getY(i + 1)),
+                    "Segment " + i + " goes through an obstacle");
+        }
+    }
+
+    @Test
+    void drivesStraightAcrossAnEmptyField() throws IOException {
+        FieldMap map = load();
+        PathPlanner planner = new PathPlanner(map, 4, startQuantization);
+        PlannedPath path = planner.plan(0.55, 1.05, 3.45, 2.05);
+
+        assertDrivable(map, path, 0.55, 1.05, 3.45, 2.05);
+        // Shortening the chain of cells leaves a single straight line.
+        assertEquals(2, path.size());
+        assertEquals(Math.hypot(2.9, 1.0), path.getRemainingLength(0), 1e-9);
+    }
+
+    @Test
+    void goesAroundAWall() throws IOException {
+        // A wall from the bottom of the field up to y = 2, between the start and the goal.
+        FieldMap map = load("1.9 0 2.1 2.0");
+        PathPlanner planner = new PathPlanner(map, 4, startQuantization);
+        PlannedPath path = planner.plan(1.05, 1.05, 2.95, 1.05);
+
+        assertDrivable(map, path, 1.05, 1.05, 2.95, 1.05);
+        boolean passesOverTheWall = false;
+        for (int i = 1; i < path.size() - 1; i++) {
+            passesOverTheWall |= path.getY(i) > 2.0;
+        }
+        assertTrue(passesOverTheWall);
+        // Close to the shortest way over the top of the wall, without wandering.
+        double overTheTop = 2 * Math.hypot(0.95, 1.0);
+        assertTrue(path.getRemainingLength(0) > overTheTop);
+        assertTrue(path.getRemainingLength(0) < overTheTop + 0.4);
+    }
+
+    @Test
+    void cannotReachABlockedGoal() throws IOException {
+        FieldMap map = load("1.9 0 2.1 2.0");
+        PathPlanner planner = new PathPlanner(map, 4, startQuantization);
+
+        assertNull(planner.plan(1.05, 1.05, 2.0, 1.0));
+    }
+
+    @Test
+    void cannotReachAnEnclosedGoal() throws IOException {
+        // A box around the goal.
+        FieldMap map = load("2.5 0.5 3.5 0.7", "2.5 1.8 3.5 2.0", "2.5 0.5 2.7 2.0", "3.3 0.5 3.5 2.0");
+        PathPlanner planner = new PathPlanner(map, 4, startQuantization);
+
+        assertNull(planner.plan(1.05, 1.05, 3.0, 1.25));
+        assertNull(planner.getCached(1.05, 1.05, 3.0, 1.25));
+    }
+
+    @Test
+    void reusesPathsFromTheSameStartSquare() throws IOException {
+        FieldMap map = load();
+        PathPlanner planner = new PathPlanner(map, 4, startQuantization);
+        PlannedPath path = planner.plan(1.05, 1.05, 3.45, 2.05);
+
+        // Anywhere in [1.0, 1.5) x [1.0, 1.5) shares the cached path.
+        assertSame(path, planner.getCached(1.05, 1.05, 3.45, 2.05));
+        assertSame(path, planner.getCached(1.45, 1.45, 3.45, 2.05));
+        assertSame(path, planner.plan(1.45, 1.45, 3.45, 2.05));
+        // So does any goal in the same cell.
+        assertSame(path, planner.getCached(1.2, 1.2, 3.41, 2.09));
+    }
+
+    @Test
+    void missesTheCacheFromAnotherStartSquare() throws IOException {
+        FieldMap map = load();
+        PathPlanner planner = new PathPlanner(map, 4, startQuantization);
+        PlannedPath path = planner.plan(1.05, 1.05, 3.45, 2.05);
+
+        // Just over the edge of the start square, and a different goal cell.
+        assertNull(planner.getCached(1.55, 1.05, 3.45, 2.05));
+        assertNull(planner.getCached(1.05, 0.95, 3.45, 2.05));
+        assertNull(planner.getCached(1.05, 1.05, 3.55, 2.05));
+        PlannedPath other = planner.plan(1.55, 1.05, 3.45, 2.05);
+        assertNotSame(path, other);
+        assertDrivable(map, other, 1.55, 1.05, 3.45, 2.05);
+        // The first plan is still cached.
+        assertSame(path, planner.getCached(1.05, 1.05, 3.45, 2.05));
+    }
+
+    @Test
+    void rejectsACachedPathThatCannotBeSeenFromTheStart() throws IOException {
+        // A small block in the top of the start square [1.0, 1.5) x [1.0, 1.5).
+        FieldMap map = load("1.2 1.35 1.3 1.45");
+        PathPlanner planner = new PathPlanner(map, 4, startQuantization);
+        // From the bottom of the square the goal is in plain sight, so the path is a straight line.
+        PlannedPath path = planner.plan(1.05, 1.05, 3.0, 1.05);
+        assertEquals(2, path.size());
+
+        // From the top of the same square the block is in the way, so the cached path is not used.
+        assertSame(path, planner.getCached(1.45, 1.05, 3.0, 1.05));
+        assertNull(planner.getCached(1.05, 1.4, 3.0, 1.05));
+        PlannedPath replanned = planner.plan(1.05, 1.4, 3.0, 1.05);
+        assertNotSame(path, replanned);
+        assertDrivable(map, replanned, 1.05, 1.4, 3.0, 1.05);
+    }
+
+    @Test
+    void leavesAWallItIsPushedAgainst() throws IOException {
+        // The same margin as the real field map, so a robot against a wall is six cells inside it.
+        FieldMap map = loadWithRobotRadius(0.55);
+        PathPlanner planner = new PathPlanner(map, 4, startQuantization);
+        // The bumpers touch the bottom wall, so the center is 0.4 meters from it.
+        PlannedPath path = planner.plan(2.05, 0.4, 2.05, 2.0);
+
+        assertNotNull(path);
+        assertEquals(3, path.size());
+        assertEquals(2.05, path.getX(0), 1e-9);
+        assertEquals(0.4, path.getY(0), 1e-9);
+        // It drives straight away from the wall to the first free cell (y > 0.6), and then on to the goal.
+        assertEquals(2.05, path.getX(1), 1e-9);
+        assertEquals(0.65, path.getY(1), 1e-9);
+        assertTrue(map.hasLineOfSight(path.getX(1), path.getY(1), 2.05, 2.0));
+        assertEquals(2.05, path.getX(2), 1e-9);
+        assertEquals(2.0, path.getY(2), 1e-9);
+    }
+
+    @Test
+    void leavesTheSpaceAroundAnObstacle() throws IOException {
+        // A block in the middle of the field, grown by 0.3 meters, with the robot against its left side.
+        FieldMap map = loadWithRobotRadius(0.3, "1.9 1.0 2.1 2.0");
+        PathPlanner planner = new PathPlanner(map, 4, startQuantization);
+        PlannedPath path = planner.plan(1.75, 1.5, 3.0, 1.5);
+
+        assertNotNull(path);
+        // Out to the left first, away from the block, and then around it.
+        assertTrue(path.getX(1) < 1.6);
+        for (int i = 1; i < path.size() - 1; i++) {
+            assertTrue(map.hasLineOfSight(path.getX(i), path.getY(i), path.getX(i + 1), path.getY(i + 1)),
+                    "Segment " + i + " goes through an obstacle");
+        }
+        // The path from the same place is cached, and still counts as reachable from there.
+        assertSame(path, planner.getCached(1.75, 1.5, 3.0, 1.5));
+        assertTrue(planner.isReachable(path, 1.75, 1.5));
+    }
+}
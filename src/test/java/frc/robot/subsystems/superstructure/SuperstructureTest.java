@@ -0,0 +1,125 @@
+package frc.robot.subsystems.superstructure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import frc.robot.subsystems.superstructure.Superstructure.Goal;
+import frc.robot.subsystems.superstructure.Superstructure.State;
+
+class SuperstructureTest {
+    /**
+     * The intended next state for every state and goal, written out by hand. Each row lists the next
+     * state for the conditions [neither, timer done, shooter at speed, both].
+     */
+    private static final Map<State, Map<Goal, State[]>> expected = new EnumMap<>(State.class);
+
+    static {
+        expect(State.IDLE, Goal.IDLE, State.IDLE, State.IDLE, State.IDLE, State.IDLE);
+        expect(State.IDLE, Goal.INTAKE, State.INTAKING, State.INTAKING, State.INTAKING, State.INTAKING);
+        expect(State.IDLE, Goal.SHOOT, State.SPINNING_UP, State.SPINNING_UP, State.SPINNING_UP,
+                State.SPINNING_UP);
+
+        expect(State.INTAKING, Goal.IDLE, State.STAGING, State.STAGING, State.STAGING, State.STAGING);
+        expect(State.INTAKING, Goal.INTAKE, State.INTAKING, State.INTAKING, State.INTAKING, State.INTAKING);
+        expect(State.INTAKING, Goal.SHOOT, State.STAGING_AND_SPINNING_UP, State.STAGING_AND_SPINNING_UP,
+                State.STAGING_AND_SPINNING_UP, State.STAGING_AND_SPINNING_UP);
+
+        expect(State.STAGING, Goal.IDLE, State.STAGING, State.STAGED, State.STAGING, State.STAGED);
+        expect(State.STAGING, Goal.INTAKE, State.INTAKING, State.INTAKING, State.INTAKING, State.INTAKING);
+        expect(State.STAGING, Goal.SHOOT, State.STAGING_AND_SPINNING_UP, State.STAGING_AND_SPINNING_UP,
+                State.STAGING_AND_SPINNING_UP, State.STAGING_AND_SPINNING_UP);
+
+        expect(State.STAGED, Goal.IDLE, State.STAGED, State.STAGED, State.STAGED, State.STAGED);
+        expect(State.STAGED, Goal.INTAKE, State.INTAKING, State.INTAKING, State.INTAKING, State.INTAKING);
+        expect(State.STAGED, Goal.SHOOT, State.SPINNING_UP, State.SPINNING_UP, State.SPINNING_UP,
+                State.SPINNING_UP);
+
+        expect(State.STAGING_AND_SPINNING_UP, Goal.IDLE, State.STAGING, State.STAGING, State.STAGING,
+                State.STAGING);
+        expect(State.STAGING_AND_SPINNING_UP, Goal.INTAKE, State.INTAKING, State.INTAKING, State.INTAKING,
+                State.INTAKING);
+        expect(State.STAGING_AND_SPINNING_UP, Goal.SHOOT, State.STAGING_AND_SPINNING_UP, State.SPINNING_UP,
+                State.STAGING_AND_SPINNING_UP, State.SHOOTING);
+
+        expect(State.SPINNING_UP, Goal.IDLE, State.STAGED, State.STAGED, State.STAGED, State.STAGED);
+        expect(State.SPINNING_UP, Goal.INTAKE, State.INTAKING, State.INTAKING, State.INTAKING, State.INTAKING);
+        expect(State.SPINNING_UP, Goal.SHOOT, State.SPINNING_UP, State.SPINNING_UP, State.SHOOTING,
+                State.SHOOTING);
+
+        // A shot is never cut short, whatever the goal.
+        expect(State.SHOOTING, Goal.IDLE, State.SHOOTING, State.IDLE, State.SHOOTING, State.IDLE);
+        expect(State.SHOOTING, Goal.INTAKE, State.SHOOTING, State.INTAKING, State.SHOOTING, State.INTAKING);
+        expect(State.SHOOTING, Goal.SHOOT, State.SHOOTING, State.SHOOTING, State.SHOOTING, State.SHOOTING);
+    }
+
+    private static void expect(State state, Goal goal, State... next) {
+        expected.computeIfAbsent(state, s -> new EnumMap<>(Goal.class)).put(goal, next);
+    }
+
+    @Test
+    void intakeThenShootStagesAndSpinsUpTogether() {
+        State state = State.IDLE;
+        state = Superstructure.nextState(state, Goal.INTAKE, false, false);
+        assertEquals(State.INTAKING, state);
+        // The driver shoots straight after intaking, so the shooter spins up while the piece is staged.
+        state = Superstructure.nextState(state, Goal.SHOOT, false, false);
+        assertEquals(State.STAGING_AND_SPINNING_UP, state);
+        state = Superstructure.nextState(state, Goal.SHOOT, false, false);
+        assertEquals(State.STAGING_AND_SPINNING_UP, state);
+        // Staging is done before the shooter is up to speed.
+        state = Superstructure.nextState(state, Goal.SHOOT, true, false);
+        assertEquals(State.SPINNING_UP, state);
+        state = Superstructure.nextState(state, Goal.SHOOT, false, true);
+        assertEquals(State.SHOOTING, state);
+        // The driver lets go in the middle of the shot, but it still finishes.
+        state = Superstructure.nextState(state, Goal.IDLE, false, true);
+        assertEquals(State.SHOOTING, state);
+        state = Superstructure.nextState(state, Goal.IDLE, true, true);
+        assertEquals(State.IDLE, state);
+    }
+
+    @Test
+    void shootsStraightFromStagingWhenTheShooterIsAlreadyAtSpeed() {
+        State state = Superstructure.nextState(State.INTAKING, Goal.SHOOT, false, true);
+        assertEquals(State.STAGING_AND_SPINNING_UP, state);
+        // The shooter being ready does not cut staging short.
+        state = Superstructure.nextState(state, Goal.SHOOT, false, true);
+        assertEquals(State.STAGING_AND_SPINNING_UP, state);
+        state = Superstructure.nextState(state, Goal.SHOOT, true, true);
+        assertEquals(State.SHOOTING, state);
+    }
+
+    @Test
+    void everyReachableCellMatchesTheIntendedTransitions() {
+        // Walk the table from IDLE with every goal and condition, and check each cell on the way.
+        Set<State> visited = EnumSet.of(State.IDLE);
+        Queue<State> queue = new ArrayDeque<>(visited);
+        int cells = 0;
+        while (!queue.isEmpty()) {
+            State state = queue.remove();
+            for (Goal goal : Goal.values()) {
+                for (int conditions = 0; conditions < 4; conditions++) {
+                    boolean timerDone = (conditions & 1) != 0;
+                    boolean shooterAtSpeed = (conditions & 2) != 0;
+                    State next = Superstructure.nextState(state, goal, timerDone, shooterAtSpeed);
+                    assertEquals(expected.get(state).get(goal)[conditions], next, state + " with goal " + goal
+                            + ", timer done " + timerDone + ", shooter at speed " + shooterAtSpeed);
+                    cells++;
+                    if (visited.add(next)) {
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+        assertEquals(EnumSet.allOf(State.class), visited);
+        assertEquals(State.values().length * Goal.values().length * 4, cells);
+    }
+}
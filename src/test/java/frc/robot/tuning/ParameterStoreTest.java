@@ -0,0 +1,109 @@
+package frc.robot.tuning;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+
+class ParameterStoreTest {
+    @BeforeAll
+    static void initializeHal() {
+        // Bad lines are reported to the driver station.
+        HAL.initialize(500, 0);
+    }
+
+    private static Path write(String text) throws IOException {
+        Path file = Files.createTempFile("tuning", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, text);
+        return file;
+    }
+
+    @Test
+    void readsNamesAndValues() throws IOException {
+        Path file = write("# A comment\n"
+                + "drive/turningKp = 1.5\n"
+                + "\n"
+                + "  auto/thetaKp=-2 # Trailing comment\n"
+                + "drive/inputDampening = 0.5");
+
+        assertEquals(Map.of("drive/turningKp", 1.5, "auto/thetaKp", -2.0, "drive/inputDampening", 0.5),
+                ParameterStore.readFile(file));
+    }
+
+    @Test
+    void skipsBadLines() throws IOException {
+        Path file = write("drive/turningKp = one\n"
+                + "drive/drivingKp\n"
+                + "# auto/thetaKp = 3\n"
+                + "auto/translationKp = 2\n");
+
+        assertEquals(Map.of("auto/translationKp", 2.0), ParameterStore.readFile(file));
+    }
+
+    @Test
+    void skipsLinesWithoutAName() throws IOException {
+        Path file = write(" = 3\nauto/translationKp = 2\n");
+
+        assertEquals(Map.of("auto/translationKp", 2.0), ParameterStore.readFile(file));
+    }
+
+    @Test
+    void findsNamesNoParameterUses() {
+        List<String> registered = List.of("drive/drivingKp", "drive/turningKp", "drive/turningKd");
+        // A wrong case and a missing prefix.
+        Map<String, Double> fromFile = Map.of("drive/drivingKP", 0.1, "drive/turningKp", 1.5, "turningKd", 0.0);
+
+        assertEquals(List.of("drive/drivingKP", "turningKd"), ParameterStore.unknownNames(fromFile, registered));
+        assertEquals(List.of(), ParameterStore.unknownNames(Map.of("drive/turningKp", 1.5), registered));
+    }
+
+    @Test
+    void readsWhatThereIsOfAHalfWrittenFile() throws IOException {
+        Path file = write("drive/turningKp = 1.5\ndrive/drivingKp =");
+
+        assertEquals(Map.of("drive/turningKp", 1.5), ParameterStore.readFile(file));
+    }
+
+    @Test
+    void readsNothingFromAMissingFile() throws IOException {
+        Path directory = Files.createTempDirectory("tuning");
+        directory.toFile().deleteOnExit();
+        Path file = directory.resolve("tuning.txt");
+
+        assertEquals(Map.of(), ParameterStore.readFile(file));
+    }
+
+    @Test
+    void returnsNullWhenTheFileCannotBeRead() throws IOException {
+        Path directory = Files.createTempDirectory("tuning");
+        directory.toFile().deleteOnExit();
+
+        assertNull(ParameterStore.readFile(directory));
+    }
+
+    @Test
+    void mergeTakesValuesFromTheFile() {
+        Map<String, Double> fromFile = Map.of("drive/turningKp", 1.5);
+
+        assertEquals(1.5, ParameterStore.merge(fromFile, "drive/turningKp", 1.0), 0);
+    }
+
+    @Test
+    void mergeKeepsTheCurrentValueOfAMissingName() {
+        Map<String, Double> fromFile = Map.of("drive/turningKp", 1.5);
+
+        // Not the default, which could revert a tuned module offset in the middle of a match.
+        assertEquals(-1.2, ParameterStore.merge(fromFile, "drive/frontLeftAngularOffset", -1.2), 0);
+        assertEquals(-1.2, ParameterStore.merge(Map.of(), "drive/frontLeftAngularOffset", -1.2), 0);
+    }
+}